@@ -0,0 +1,543 @@
+package dynarrays;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+// Arrow IPC file format for a single non-nullable primitive column, without an Arrow dependency
+public final class ArenaArrowIO {
+
+    private static final byte[] MAGIC = "ARROW1".getBytes(StandardCharsets.US_ASCII);
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final short METADATA_VERSION_V5 = 4;
+    private static final String DEFAULT_COLUMN_NAME = "values";
+
+    // MessageHeader union
+    private static final byte HEADER_SCHEMA = 1;
+    private static final byte HEADER_RECORD_BATCH = 3;
+
+    // Type union
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_FLOATING_POINT = 3;
+
+    // FloatingPoint precision
+    private static final short PRECISION_HALF = 0;
+    private static final short PRECISION_SINGLE = 1;
+    private static final short PRECISION_DOUBLE = 2;
+
+    private static final short ENDIANNESS_LITTLE = 0;
+    private static final short ENDIANNESS_BIG = 1;
+
+    private ArenaArrowIO() {
+    }
+
+    private record ArrowType(byte typeType, int bitWidth, boolean signed, short precision) {
+
+        static ArrowType ofInt(int bitWidth, boolean signed) {
+            return new ArrowType(TYPE_INT, bitWidth, signed, (short) 0);
+        }
+
+        static ArrowType ofFloatingPoint(short precision) {
+            return new ArrowType(TYPE_FLOATING_POINT, 0, false, precision);
+        }
+
+        static ArrowType of(Class<?> clazz, ArenaDynArray.FloatStorage floatStorage) {
+            if (clazz == int.class || clazz == Integer.class) return ofInt(32, true);
+            if (clazz == long.class || clazz == Long.class) return ofInt(64, true);
+            if (clazz == char.class || clazz == Character.class) return ofInt(16, false);
+            if (clazz == double.class || clazz == Double.class) return ofFloatingPoint(PRECISION_DOUBLE);
+            if (clazz == float.class || clazz == Float.class) {
+                return switch (floatStorage) {
+                    case FLOAT32 -> ofFloatingPoint(PRECISION_SINGLE);
+                    case FLOAT16 -> ofFloatingPoint(PRECISION_HALF);
+                    case BFLOAT16 -> throw new UnsupportedDynArrayTypeException(clazz);
+                };
+            }
+            // booleans are bit-packed and enums have no primitive Arrow counterpart
+            throw new UnsupportedDynArrayTypeException(clazz);
+        }
+    }
+
+    public static void write(ArenaDynArray<?> array, Path file) {
+        write(array, file, DEFAULT_COLUMN_NAME);
+    }
+
+    public static void write(ArenaDynArray<?> array, Path file, String columnName) {
+        Objects.requireNonNull(array);
+        Objects.requireNonNull(file);
+        Objects.requireNonNull(columnName);
+        ArrowType type = ArrowType.of(array.elementClass(), array.floatStorage());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = 0;
+            position += writeFully(channel, ByteBuffer.wrap(Arrays.copyOf(MAGIC, 8)), position);
+            position += writeFully(channel, encapsulate(schemaMessage(type, columnName, array.byteOrder())), position);
+
+            long rows = array.longSize();
+            long dataBytes = rows * array.elementByteSize();
+            long bodyLength = align8(dataBytes);
+            ByteBuffer batchMetadata = encapsulate(recordBatchMessage(rows, dataBytes, bodyLength));
+            long batchOffset = position;
+            int batchMetadataLength = batchMetadata.remaining();
+            position += writeFully(channel, batchMetadata, position);
+            // the column buffer goes straight from the array's segment to the file
+            position += writeFully(channel, array.rawSlice(0, rows).asByteBuffer(), position);
+            position += writeFully(channel, ByteBuffer.allocate((int) (bodyLength - dataBytes)), position);
+
+            ByteBuffer endOfStream = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            endOfStream.putInt(CONTINUATION).putInt(0).flip();
+            position += writeFully(channel, endOfStream, position);
+
+            ByteBuffer footer = footer(type, columnName, array.byteOrder(), batchOffset, batchMetadataLength, bodyLength);
+            int footerLength = footer.remaining();
+            position += writeFully(channel, footer, position);
+            ByteBuffer trailer = ByteBuffer.allocate(4 + MAGIC.length).order(ByteOrder.LITTLE_ENDIAN);
+            trailer.putInt(footerLength).put(MAGIC).flip();
+            writeFully(channel, trailer, position);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // a single record batch is mapped zero-copy; several batches are copied into one segment
+    public static <T> ArenaDynArray<T> read(Class<T> clazz, Path file) {
+        Objects.requireNonNull(clazz);
+        Objects.requireNonNull(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < 2L * MAGIC.length + 4
+                    || !Arrays.equals(readBytes(channel, 0, MAGIC.length).array(), MAGIC)
+                    || !Arrays.equals(readBytes(channel, fileSize - MAGIC.length, MAGIC.length).array(), MAGIC)) {
+                throw new IllegalStateException("File is not an Arrow IPC file");
+            }
+            int footerLength = readBytes(channel, fileSize - MAGIC.length - 4, 4).getInt(0);
+            FlatBufferReader footer = new FlatBufferReader(readBytes(channel, fileSize - MAGIC.length - 4 - footerLength, footerLength));
+
+            int footerTable = footer.root();
+            int schema = footer.table(footerTable, 1);
+            ArenaDynArray.FloatStorage floatStorage = readSchema(footer, schema, clazz);
+            // the array adopts the file's endianness so column buffers are still mapped or copied as is
+            ByteOrder byteOrder = footer.shortField(schema, 0, ENDIANNESS_LITTLE) == ENDIANNESS_BIG
+                    ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+
+            int batches = footer.vector(footerTable, 3);
+            int batchCount = batches < 0 ? 0 : footer.vectorLength(batches);
+            long[] dataOffsets = new long[batchCount];
+            long[] rowCounts = new long[batchCount];
+            long totalRows = 0;
+            for (int i = 0; i < batchCount; i++) {
+                // struct Block { offset: long; metaDataLength: int; bodyLength: long; }
+                int block = batches + 4 + i * 24;
+                long blockOffset = footer.buffer.getLong(block);
+                int metadataLength = footer.buffer.getInt(block + 8);
+                long[] batch = readRecordBatch(channel, blockOffset, metadataLength);
+                dataOffsets[i] = blockOffset + metadataLength + batch[1];
+                rowCounts[i] = batch[0];
+                totalRows += batch[0];
+            }
+
+            if (batchCount == 1) {
+                return ArenaDynArray.mapReadOnly(clazz, floatStorage, byteOrder, channel, dataOffsets[0], rowCounts[0]);
+            }
+            ArenaDynArray<T> array = new ArenaDynArray<>(clazz, ArenaDynArray.capacityFor(totalRows),
+                    ArenaDynArray.MemoryManagerType.SHARED, floatStorage, byteOrder);
+            try (Arena mapping = Arena.ofConfined()) {
+                for (int i = 0; i < batchCount; i++) {
+                    array.appendRaw(channel.map(FileChannel.MapMode.READ_ONLY, dataOffsets[i],
+                            rowCounts[i] * array.elementByteSize(), mapping));
+                }
+            }
+            return array;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ArenaDynArray.FloatStorage readSchema(FlatBufferReader fb, int schema, Class<?> clazz) {
+        if (schema < 0) {
+            throw new IllegalStateException("Arrow footer has no schema");
+        }
+        int fields = fb.vector(schema, 1);
+        if (fields < 0 || fb.vectorLength(fields) != 1) {
+            throw new IllegalStateException("Only single column Arrow files are supported");
+        }
+        int field = fb.indirect(fields + 4);
+        byte typeType = fb.byteField(field, 2, (byte) 0);
+        int typeTable = fb.table(field, 3);
+        ArrowType stored = switch (typeType) {
+            case TYPE_INT -> ArrowType.ofInt(fb.intField(typeTable, 0, 0), fb.byteField(typeTable, 1, (byte) 0) != 0);
+            case TYPE_FLOATING_POINT -> ArrowType.ofFloatingPoint(fb.shortField(typeTable, 0, PRECISION_HALF));
+            default -> throw new UnsupportedDynArrayTypeException(clazz);
+        };
+
+        ArenaDynArray.FloatStorage floatStorage = stored.typeType() == TYPE_FLOATING_POINT && stored.precision() == PRECISION_HALF
+                ? ArenaDynArray.FloatStorage.FLOAT16 : ArenaDynArray.FloatStorage.FLOAT32;
+        if (!stored.equals(ArrowType.of(clazz, floatStorage))) {
+            throw new UnsupportedDynArrayTypeException(clazz);
+        }
+        return floatStorage;
+    }
+
+    // returns the row count and the data buffer offset inside the body
+    private static long[] readRecordBatch(FileChannel channel, long blockOffset, int metadataLength) throws IOException {
+        ByteBuffer prefix = readBytes(channel, blockOffset, 8);
+        int flatBufferOffset = prefix.getInt(0) == CONTINUATION ? 8 : 4;
+        FlatBufferReader fb = new FlatBufferReader(readBytes(channel, blockOffset + flatBufferOffset, metadataLength - flatBufferOffset));
+
+        int message = fb.root();
+        if (fb.byteField(message, 1, (byte) 0) != HEADER_RECORD_BATCH) {
+            throw new IllegalStateException("Arrow block is not a record batch");
+        }
+        int recordBatch = fb.table(message, 2);
+        if (fb.table(recordBatch, 3) >= 0) {
+            throw new IllegalStateException("Compressed Arrow record batches are not supported");
+        }
+        long length = fb.longField(recordBatch, 0, 0);
+        int nodes = fb.vector(recordBatch, 1);
+        if (nodes >= 0 && fb.vectorLength(nodes) > 0 && fb.buffer.getLong(nodes + 4 + 8) != 0) {
+            throw new IllegalStateException("Arrow columns with nulls are not supported");
+        }
+        int buffers = fb.vector(recordBatch, 2);
+        if (buffers < 0 || fb.vectorLength(buffers) < 2) {
+            throw new IllegalStateException("Arrow record batch has no data buffer");
+        }
+        // buffers[0] is the validity bitmap, buffers[1] the values
+        long dataOffset = fb.buffer.getLong(buffers + 4 + 16);
+        return new long[]{length, dataOffset};
+    }
+
+    private static ByteBuffer schemaMessage(ArrowType type, String columnName, ByteOrder byteOrder) {
+        FlatBufferBuilder fb = new FlatBufferBuilder();
+        int schema = schema(fb, type, columnName, byteOrder);
+        fb.startTable(5);
+        fb.addShort(0, METADATA_VERSION_V5);
+        fb.addByte(1, HEADER_SCHEMA);
+        fb.addOffset(2, schema);
+        fb.addLong(3, 0);
+        return fb.finish(fb.endTable());
+    }
+
+    private static ByteBuffer recordBatchMessage(long rows, long dataBytes, long bodyLength) {
+        FlatBufferBuilder fb = new FlatBufferBuilder();
+        // struct FieldNode { length: long; null_count: long; }
+        fb.startVector(16, 1, 8);
+        fb.putLong(0);
+        fb.putLong(rows);
+        int nodes = fb.endVector(1);
+        // struct Buffer { offset: long; length: long; }, validity first and empty since there are no nulls
+        fb.startVector(16, 2, 8);
+        fb.putLong(dataBytes);
+        fb.putLong(0);
+        fb.putLong(0);
+        fb.putLong(0);
+        int buffers = fb.endVector(2);
+
+        fb.startTable(5);
+        fb.addLong(0, rows);
+        fb.addOffset(1, nodes);
+        fb.addOffset(2, buffers);
+        int recordBatch = fb.endTable();
+
+        fb.startTable(5);
+        fb.addShort(0, METADATA_VERSION_V5);
+        fb.addByte(1, HEADER_RECORD_BATCH);
+        fb.addOffset(2, recordBatch);
+        fb.addLong(3, bodyLength);
+        return fb.finish(fb.endTable());
+    }
+
+    private static ByteBuffer footer(ArrowType type, String columnName, ByteOrder byteOrder, long batchOffset, int batchMetadataLength, long bodyLength) {
+        FlatBufferBuilder fb = new FlatBufferBuilder();
+        int schema = schema(fb, type, columnName, byteOrder);
+        fb.startVector(24, 0, 8);
+        int dictionaries = fb.endVector(0);
+        // struct Block { offset: long; metaDataLength: int; (padding) bodyLength: long; }
+        fb.startVector(24, 1, 8);
+        fb.putLong(bodyLength);
+        fb.pad(4);
+        fb.putInt(batchMetadataLength);
+        fb.putLong(batchOffset);
+        int recordBatches = fb.endVector(1);
+
+        fb.startTable(5);
+        fb.addShort(0, METADATA_VERSION_V5);
+        fb.addOffset(1, schema);
+        fb.addOffset(2, dictionaries);
+        fb.addOffset(3, recordBatches);
+        return fb.finish(fb.endTable());
+    }
+
+    private static int schema(FlatBufferBuilder fb, ArrowType type, String columnName, ByteOrder byteOrder) {
+        int name = fb.createString(columnName);
+        int typeTable;
+        if (type.typeType() == TYPE_INT) {
+            fb.startTable(2);
+            fb.addInt(0, type.bitWidth());
+            fb.addByte(1, (byte) (type.signed() ? 1 : 0));
+            typeTable = fb.endTable();
+        } else {
+            fb.startTable(1);
+            fb.addShort(0, type.precision());
+            typeTable = fb.endTable();
+        }
+        fb.startVector(4, 0, 4);
+        int children = fb.endVector(0);
+
+        fb.startTable(7);
+        fb.addOffset(0, name);
+        fb.addByte(1, (byte) 0);
+        fb.addByte(2, type.typeType());
+        fb.addOffset(3, typeTable);
+        fb.addOffset(5, children);
+        int field = fb.endTable();
+
+        fb.startVector(4, 1, 4);
+        fb.putOffset(field);
+        int fields = fb.endVector(1);
+
+        fb.startTable(4);
+        fb.addShort(0, byteOrder == ByteOrder.BIG_ENDIAN ? ENDIANNESS_BIG : ENDIANNESS_LITTLE);
+        fb.addOffset(1, fields);
+        return fb.endTable();
+    }
+
+    // continuation marker and metadata size, then the flatbuffer padded so the body starts 8-byte aligned
+    private static ByteBuffer encapsulate(ByteBuffer flatBuffer) {
+        int metadataSize = (int) align8(flatBuffer.remaining() + 8) - 8;
+        ByteBuffer message = ByteBuffer.allocate(8 + metadataSize).order(ByteOrder.LITTLE_ENDIAN);
+        message.putInt(CONTINUATION).putInt(metadataSize).put(flatBuffer);
+        return message.clear();
+    }
+
+    private static long align8(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return written;
+    }
+
+    private static ByteBuffer readBytes(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IllegalStateException("Arrow file is truncated");
+            }
+        }
+        return buffer.clear();
+    }
+
+    // minimal back-to-front flatbuffer builder, enough for the Arrow metadata tables
+    private static final class FlatBufferBuilder {
+
+        private ByteBuffer buffer = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+        private int space = buffer.capacity();
+        private int minAlign = 1;
+        private int[] vtable;
+        private int objectStart;
+
+        int offset() {
+            return buffer.capacity() - space;
+        }
+
+        void pad(int bytes) {
+            for (int i = 0; i < bytes; i++) {
+                buffer.put(--space, (byte) 0);
+            }
+        }
+
+        // aligns so that `size` bytes written after `additionalBytes` are naturally aligned
+        void prep(int size, int additionalBytes) {
+            minAlign = Math.max(minAlign, size);
+            int alignSize = (-(offset() + additionalBytes)) & (size - 1);
+            while (space < alignSize + size + additionalBytes) {
+                grow();
+            }
+            pad(alignSize);
+        }
+
+        private void grow() {
+            int oldCapacity = buffer.capacity();
+            ByteBuffer grown = ByteBuffer.allocate(oldCapacity * 2).order(ByteOrder.LITTLE_ENDIAN);
+            grown.put(oldCapacity, buffer, 0, oldCapacity);
+            space += oldCapacity;
+            buffer = grown;
+        }
+
+        void putByte(byte value) {
+            prep(1, 0);
+            buffer.put(--space, value);
+        }
+
+        void putShort(short value) {
+            prep(2, 0);
+            space -= 2;
+            buffer.putShort(space, value);
+        }
+
+        void putInt(int value) {
+            prep(4, 0);
+            space -= 4;
+            buffer.putInt(space, value);
+        }
+
+        void putLong(long value) {
+            prep(8, 0);
+            space -= 8;
+            buffer.putLong(space, value);
+        }
+
+        void putOffset(int target) {
+            prep(4, 0);
+            putInt(offset() - target + 4);
+        }
+
+        int createString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            prep(4, bytes.length + 1);
+            buffer.put(--space, (byte) 0);
+            space -= bytes.length;
+            buffer.put(space, bytes);
+            putInt(bytes.length);
+            return offset();
+        }
+
+        void startVector(int elementSize, int count, int alignment) {
+            prep(4, elementSize * count);
+            prep(alignment, elementSize * count);
+        }
+
+        int endVector(int count) {
+            putInt(count);
+            return offset();
+        }
+
+        void startTable(int fields) {
+            vtable = new int[fields];
+            objectStart = offset();
+        }
+
+        void addByte(int field, byte value) {
+            putByte(value);
+            vtable[field] = offset();
+        }
+
+        void addShort(int field, short value) {
+            putShort(value);
+            vtable[field] = offset();
+        }
+
+        void addInt(int field, int value) {
+            putInt(value);
+            vtable[field] = offset();
+        }
+
+        void addLong(int field, long value) {
+            putLong(value);
+            vtable[field] = offset();
+        }
+
+        void addOffset(int field, int target) {
+            putOffset(target);
+            vtable[field] = offset();
+        }
+
+        int endTable() {
+            putInt(0);
+            int objectOffset = offset();
+            int fields = vtable.length;
+            while (fields > 0 && vtable[fields - 1] == 0) {
+                fields--;
+            }
+            for (int i = fields - 1; i >= 0; i--) {
+                putShort((short) (vtable[i] != 0 ? objectOffset - vtable[i] : 0));
+            }
+            putShort((short) (objectOffset - objectStart));
+            putShort((short) ((fields + 2) * 2));
+            // the vtable sits right before the table, so the table's soffset is positive
+            buffer.putInt(buffer.capacity() - objectOffset, offset() - objectOffset);
+            vtable = null;
+            return objectOffset;
+        }
+
+        ByteBuffer finish(int root) {
+            prep(minAlign, 4);
+            putOffset(root);
+            return buffer.slice(space, buffer.capacity() - space).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private static final class FlatBufferReader {
+
+        private final ByteBuffer buffer;
+
+        FlatBufferReader(ByteBuffer buffer) {
+            this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int root() {
+            return indirect(0);
+        }
+
+        int indirect(int position) {
+            return position + buffer.getInt(position);
+        }
+
+        // absolute position of the field, or -1 when it is absent
+        int field(int table, int field) {
+            int vtable = table - buffer.getInt(table);
+            int vtableSize = Short.toUnsignedInt(buffer.getShort(vtable));
+            int entry = 4 + field * 2;
+            if (entry >= vtableSize) return -1;
+            int offset = Short.toUnsignedInt(buffer.getShort(vtable + entry));
+            return offset == 0 ? -1 : table + offset;
+        }
+
+        int table(int table, int field) {
+            int position = field(table, field);
+            return position < 0 ? -1 : indirect(position);
+        }
+
+        int vector(int table, int field) {
+            return table(table, field);
+        }
+
+        int vectorLength(int vector) {
+            return buffer.getInt(vector);
+        }
+
+        byte byteField(int table, int field, byte defaultValue) {
+            int position = field(table, field);
+            return position < 0 ? defaultValue : buffer.get(position);
+        }
+
+        short shortField(int table, int field, short defaultValue) {
+            int position = field(table, field);
+            return position < 0 ? defaultValue : buffer.getShort(position);
+        }
+
+        int intField(int table, int field, int defaultValue) {
+            int position = field(table, field);
+            return position < 0 ? defaultValue : buffer.getInt(position);
+        }
+
+        long longField(int table, int field, long defaultValue) {
+            int position = field(table, field);
+            return position < 0 ? defaultValue : buffer.getLong(position);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package dynarrays;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+
+// reads keep their decoding state in a cursor of their own, so they may run concurrently; add and clear may not
+public class ArenaCompressedDoubleArray implements AutoCloseable {
+
+    static final int BLOCK_SIZE = 256;
+
+    private static final short DEFAULT_START_BLOCKS = 8;
+    private static final ValueLayout.OfLong WORD = ValueLayout.JAVA_LONG;
+    // worst case for a single value: two control bits, 5 + 6 bits of header and 64 bits of payload
+    private static final int MAX_BITS_PER_VALUE = 2 + 5 + 6 + Long.SIZE;
+    private static final int MAX_LEADING_ZEROS = 31;
+
+    private final BudgetedArena arena;
+    private MemorySegment data;
+    // one word per block holding only the bit position where the block starts; the block's first value is
+    // written there uncompressed, so a cursor can decode from any block without the values before it
+    private MemorySegment checkpoints;
+    private long checkpointCapacity;
+    private long bitPosition = 0;
+    private int size = 0;
+
+    private long previousBits;
+    private int previousLeading;
+    private int previousTrailing;
+
+    public ArenaCompressedDoubleArray() {
+        this(ArenaDynArray.MemoryManagerType.SHARED);
+    }
+
+    public ArenaCompressedDoubleArray(ArenaDynArray.MemoryManagerType memoryManager) {
+        this.arena = new BudgetedArena(memoryManager, ArenaCompressedDoubleArray.class.getSimpleName());
+        this.checkpointCapacity = DEFAULT_START_BLOCKS;
+        this.checkpoints = arena.allocate(WORD.byteSize() * checkpointCapacity, WORD.byteAlignment());
+        this.data = arena.allocate(WORD.byteSize() * DEFAULT_START_BLOCKS * BLOCK_SIZE / 4, WORD.byteAlignment());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long compressedByteSize() {
+        return (bitPosition + Long.SIZE - 1) / Long.SIZE * WORD.byteSize()
+                + (size + BLOCK_SIZE - 1) / BLOCK_SIZE * WORD.byteSize();
+    }
+
+    public void add(double value) {
+        checkCapacityAndRealloc();
+        long bits = Double.doubleToRawLongBits(value);
+
+        if (size % BLOCK_SIZE == 0) {
+            checkpoints.setAtIndex(WORD, size / BLOCK_SIZE, bitPosition);
+            writeBits(bits, Long.SIZE);
+            previousLeading = -1;
+            previousTrailing = 0;
+        } else {
+            long xor = bits ^ previousBits;
+            if (xor == 0) {
+                writeBits(0, 1);
+            } else {
+                writeBits(1, 1);
+                int leading = Math.min(Long.numberOfLeadingZeros(xor), MAX_LEADING_ZEROS);
+                int trailing = Long.numberOfTrailingZeros(xor);
+                if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                    writeBits(0, 1);
+                    writeBits(xor >>> previousTrailing, Long.SIZE - previousLeading - previousTrailing);
+                } else {
+                    int meaningfulBits = Long.SIZE - leading - trailing;
+                    writeBits(1, 1);
+                    writeBits(leading, 5);
+                    writeBits(meaningfulBits - 1, 6);
+                    writeBits(xor >>> trailing, meaningfulBits);
+                    previousLeading = leading;
+                    previousTrailing = trailing;
+                }
+            }
+        }
+        previousBits = bits;
+        size++;
+    }
+
+    public void addAll(double... values) {
+        Objects.requireNonNull(values);
+        for (double value : values) {
+            add(value);
+        }
+    }
+
+    public double getDouble(int index) {
+        checkIndexOutOfBounds(index);
+        int block = index / BLOCK_SIZE;
+        Cursor cursor = new Cursor();
+        cursor.seek(block);
+        double value = cursor.next();
+        for (int i = block * BLOCK_SIZE; i < index; i++) {
+            value = cursor.next();
+        }
+        return value;
+    }
+
+    public Double get(int index) {
+        return getDouble(index);
+    }
+
+    public void forEach(DoubleConsumer action) {
+        Objects.requireNonNull(action);
+        if (size == 0) return;
+        Cursor cursor = new Cursor();
+        for (int i = 0; i < size; i++) {
+            if (i % BLOCK_SIZE == 0) {
+                cursor.seek(i / BLOCK_SIZE);
+            }
+            action.accept(cursor.next());
+        }
+    }
+
+    public void clear() {
+        data.fill((byte) 0);
+        bitPosition = 0;
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    private void writeBits(long value, int bits) {
+        if (bits < Long.SIZE) {
+            value &= (1L << bits) - 1;
+        }
+        long word = bitPosition >>> 6;
+        int shift = (int) (bitPosition & 63);
+        data.setAtIndex(WORD, word, data.getAtIndex(WORD, word) | (value << shift));
+        if (shift + bits > Long.SIZE) {
+            data.setAtIndex(WORD, word + 1, data.getAtIndex(WORD, word + 1) | (value >>> (Long.SIZE - shift)));
+        }
+        bitPosition += bits;
+    }
+
+    private long readBits(long position, int bits) {
+        long word = position >>> 6;
+        int shift = (int) (position & 63);
+        long value = data.getAtIndex(WORD, word) >>> shift;
+        if (shift + bits > Long.SIZE) {
+            value |= data.getAtIndex(WORD, word + 1) << (Long.SIZE - shift);
+        }
+        return bits == Long.SIZE ? value : value & ((1L << bits) - 1);
+    }
+
+    private void checkCapacityAndRealloc() {
+        long block = size / BLOCK_SIZE;
+        if (block >= checkpointCapacity) {
+            long newCapacity = checkpointCapacity * 2;
+            MemorySegment newCheckpoints = arena.allocate(WORD.byteSize() * newCapacity, WORD.byteAlignment());
+            MemorySegment.copy(checkpoints, 0, newCheckpoints, 0, checkpoints.byteSize());
+            checkpoints = newCheckpoints;
+            checkpointCapacity = newCapacity;
+        }
+        long requiredBytes = ((bitPosition + MAX_BITS_PER_VALUE) / Long.SIZE + 2) * WORD.byteSize();
+        if (requiredBytes > data.byteSize()) {
+            long newByteSize = Math.max(data.byteSize() * 2, requiredBytes);
+            MemorySegment newData = arena.allocate(newByteSize, WORD.byteAlignment());
+            MemorySegment.copy(data, 0, newData, 0, data.byteSize());
+            data = newData;
+        }
+    }
+
+    private void checkIndexOutOfBounds(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for size " + size);
+    }
+
+    private class Cursor {
+
+        private long position;
+        private long bits;
+        private int leading;
+        private int trailing;
+        private boolean atCheckpoint;
+
+        void seek(int block) {
+            position = checkpoints.getAtIndex(WORD, block);
+            atCheckpoint = true;
+        }
+
+        double next() {
+            if (atCheckpoint) {
+                bits = read(Long.SIZE);
+                atCheckpoint = false;
+            } else if (read(1) != 0) {
+                if (read(1) != 0) {
+                    leading = (int) read(5);
+                    int meaningfulBits = (int) read(6) + 1;
+                    trailing = Long.SIZE - leading - meaningfulBits;
+                }
+                bits ^= read(Long.SIZE - leading - trailing) << trailing;
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        private long read(int count) {
+            long value = readBits(position, count);
+            position += count;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package dynarrays;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+public class ArenaCompressedLongArray implements AutoCloseable {
+
+    static final int BLOCK_SIZE = 128;
+
+    private static final short DEFAULT_START_BLOCKS = 8;
+    private static final ValueLayout.OfLong WORD = ValueLayout.JAVA_LONG;
+
+    // per block header: first value, minimum delta, word offset in data, bit width
+    private static final long BASE_OFFSET = 0;
+    private static final long MIN_DELTA_OFFSET = 8;
+    private static final long DATA_OFFSET = 16;
+    private static final long BIT_WIDTH_OFFSET = 24;
+    private static final long HEADER_BYTES = 32;
+
+    private final BudgetedArena arena;
+    private final long[] pending = new long[BLOCK_SIZE];
+    private final long[] packScratch = new long[BLOCK_SIZE];
+    private MemorySegment headers;
+    private MemorySegment data;
+    private long headerCapacity;
+    private long dataWords = 0;
+    private int blocks = 0;
+    private int pendingSize = 0;
+
+    public ArenaCompressedLongArray() {
+        this(ArenaDynArray.MemoryManagerType.SHARED);
+    }
+
+    public ArenaCompressedLongArray(ArenaDynArray.MemoryManagerType memoryManager) {
+        this.arena = new BudgetedArena(memoryManager, ArenaCompressedLongArray.class.getSimpleName());
+        this.headerCapacity = DEFAULT_START_BLOCKS;
+        this.headers = arena.allocate(HEADER_BYTES * headerCapacity, WORD.byteAlignment());
+        this.data = arena.allocate(WORD.byteSize() * DEFAULT_START_BLOCKS * BLOCK_SIZE / 8, WORD.byteAlignment());
+    }
+
+    public int size() {
+        return blocks * BLOCK_SIZE + pendingSize;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int blockCount() {
+        return blocks;
+    }
+
+    public long compressedByteSize() {
+        return blocks * HEADER_BYTES + dataWords * WORD.byteSize() + (long) pendingSize * Long.BYTES;
+    }
+
+    public void add(long value) {
+        pending[pendingSize++] = value;
+        if (pendingSize == BLOCK_SIZE) {
+            encodePendingBlock();
+        }
+    }
+
+    public void addAll(long... values) {
+        Objects.requireNonNull(values);
+        for (long value : values) {
+            add(value);
+        }
+    }
+
+    public long getLong(int index) {
+        checkIndexOutOfBounds(index);
+        int block = index / BLOCK_SIZE;
+        int position = index % BLOCK_SIZE;
+        if (block == blocks) {
+            return pending[position];
+        }
+
+        long headerOffset = block * HEADER_BYTES;
+        long value = headers.get(WORD, headerOffset + BASE_OFFSET);
+        if (position == 0) {
+            return value;
+        }
+        long minDelta = headers.get(WORD, headerOffset + MIN_DELTA_OFFSET);
+        long wordOffset = headers.get(WORD, headerOffset + DATA_OFFSET);
+        int bitWidth = (int) headers.get(WORD, headerOffset + BIT_WIDTH_OFFSET);
+        for (int j = 0; j < position; j++) {
+            value += minDelta + unpack(wordOffset, (long) j * bitWidth, bitWidth);
+        }
+        return value;
+    }
+
+    public Long get(int index) {
+        return getLong(index);
+    }
+
+    // decodes a whole block into dst and returns the number of values written
+    public int decodeBlock(int block, long[] dst) {
+        Objects.requireNonNull(dst);
+        if (block < 0 || block > blocks || (block == blocks && pendingSize == 0))
+            throw new IndexOutOfBoundsException("Block " + block + " is out of bounds for block count " + blocks);
+        if (block == blocks) {
+            System.arraycopy(pending, 0, dst, 0, pendingSize);
+            return pendingSize;
+        }
+
+        long headerOffset = block * HEADER_BYTES;
+        long value = headers.get(WORD, headerOffset + BASE_OFFSET);
+        long minDelta = headers.get(WORD, headerOffset + MIN_DELTA_OFFSET);
+        long wordOffset = headers.get(WORD, headerOffset + DATA_OFFSET);
+        int bitWidth = (int) headers.get(WORD, headerOffset + BIT_WIDTH_OFFSET);
+
+        dst[0] = value;
+        for (int j = 1; j < BLOCK_SIZE; j++) {
+            value += minDelta + unpack(wordOffset, (long) (j - 1) * bitWidth, bitWidth);
+            dst[j] = value;
+        }
+        return BLOCK_SIZE;
+    }
+
+    public void forEach(LongConsumer action) {
+        Objects.requireNonNull(action);
+        long[] decoded = new long[BLOCK_SIZE];
+        for (int block = 0; block < blocks; block++) {
+            decodeBlock(block, decoded);
+            for (long value : decoded) {
+                action.accept(value);
+            }
+        }
+        for (int i = 0; i < pendingSize; i++) {
+            action.accept(pending[i]);
+        }
+    }
+
+    public void clear() {
+        blocks = 0;
+        pendingSize = 0;
+        dataWords = 0;
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    private void encodePendingBlock() {
+        long minDelta = Long.MAX_VALUE;
+        for (int j = 1; j < BLOCK_SIZE; j++) {
+            minDelta = Math.min(minDelta, pending[j] - pending[j - 1]);
+        }
+        long bits = 0;
+        for (int j = 1; j < BLOCK_SIZE; j++) {
+            bits |= pending[j] - pending[j - 1] - minDelta;
+        }
+        int bitWidth = Long.SIZE - Long.numberOfLeadingZeros(bits);
+        int words = (int) (((long) (BLOCK_SIZE - 1) * bitWidth + Long.SIZE - 1) / Long.SIZE);
+
+        Arrays.fill(packScratch, 0, words, 0L);
+        for (int j = 1; j < BLOCK_SIZE; j++) {
+            pack(pending[j] - pending[j - 1] - minDelta, (long) (j - 1) * bitWidth, bitWidth);
+        }
+
+        checkCapacityAndRealloc(words);
+        MemorySegment.copy(packScratch, 0, data, WORD, dataWords * WORD.byteSize(), words);
+
+        long headerOffset = blocks * HEADER_BYTES;
+        headers.set(WORD, headerOffset + BASE_OFFSET, pending[0]);
+        headers.set(WORD, headerOffset + MIN_DELTA_OFFSET, minDelta);
+        headers.set(WORD, headerOffset + DATA_OFFSET, dataWords);
+        headers.set(WORD, headerOffset + BIT_WIDTH_OFFSET, bitWidth);
+
+        dataWords += words;
+        blocks++;
+        pendingSize = 0;
+    }
+
+    private void pack(long value, long bitPosition, int bitWidth) {
+        if (bitWidth == 0) return;
+        int word = (int) (bitPosition >>> 6);
+        int shift = (int) (bitPosition & 63);
+        packScratch[word] |= value << shift;
+        if (shift + bitWidth > Long.SIZE) {
+            packScratch[word + 1] |= value >>> (Long.SIZE - shift);
+        }
+    }
+
+    private long unpack(long wordOffset, long bitPosition, int bitWidth) {
+        if (bitWidth == 0) return 0;
+        long word = wordOffset + (bitPosition >>> 6);
+        int shift = (int) (bitPosition & 63);
+        long value = data.getAtIndex(WORD, word) >>> shift;
+        if (shift + bitWidth > Long.SIZE) {
+            value |= data.getAtIndex(WORD, word + 1) << (Long.SIZE - shift);
+        }
+        return bitWidth == Long.SIZE ? value : value & ((1L << bitWidth) - 1);
+    }
+
+    private void checkCapacityAndRealloc(int words) {
+        if (blocks >= headerCapacity) {
+            long newCapacity = headerCapacity * 2;
+            MemorySegment newHeaders = arena.allocate(HEADER_BYTES * newCapacity, WORD.byteAlignment());
+            MemorySegment.copy(headers, 0, newHeaders, 0, headers.byteSize());
+            headers = newHeaders;
+            headerCapacity = newCapacity;
+        }
+        long requiredBytes = (dataWords + words) * WORD.byteSize();
+        if (requiredBytes > data.byteSize()) {
+            long newByteSize = Math.max(data.byteSize() * 2, requiredBytes);
+            MemorySegment newData = arena.allocate(newByteSize, WORD.byteAlignment());
+            MemorySegment.copy(data, 0, newData, 0, dataWords * WORD.byteSize());
+            data = newData;
+        }
+    }
+
+    private void checkIndexOutOfBounds(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for size " + size());
+    }
+}
@@ -0,0 +1,236 @@
+package dynarrays;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// snapshot split in fixed-size blocks deflated in parallel, with a block index for random-access restore
+public final class ArenaCompressedSnapshot {
+
+    public static final int DEFAULT_BLOCK_BYTES = 1 << 20;
+
+    // header, always little endian: magic, version, type, float storage, byte order, size, block bytes, block count
+    private static final long MAGIC = 0x4144594E5A495031L;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+    // index entry: offset of the compressed block from the start of the snapshot and its compressed length
+    private static final int INDEX_ENTRY_BYTES = 12;
+    private static final int BLOCKS_PER_WAVE = 4 * Runtime.getRuntime().availableProcessors();
+
+    private ArenaCompressedSnapshot() {
+    }
+
+    private record Header(int typeCode, ArenaDynArray.FloatStorage floatStorage, ByteOrder byteOrder,
+                          long size, int blockBytes, int blockCount) {
+    }
+
+    public static void write(ArenaDynArray<?> array, FileChannel target) {
+        write(array, target, DEFAULT_BLOCK_BYTES, Deflater.BEST_SPEED);
+    }
+
+    public static void write(ArenaDynArray<?> array, FileChannel target, int blockBytes, int level) {
+        Objects.requireNonNull(array);
+        Objects.requireNonNull(target);
+        long elementBytes = array.elementByteSize();
+        if (blockBytes < elementBytes) {
+            throw new IllegalArgumentException("Block must hold at least one element");
+        }
+        // blocks hold whole elements so a range restore never splits one
+        int alignedBlockBytes = (int) (blockBytes / elementBytes * elementBytes);
+        MemorySegment data = array.rawSlice(0, array.longSize());
+        int blockCount = Math.toIntExact((data.byteSize() + alignedBlockBytes - 1) / alignedBlockBytes);
+
+        try {
+            long start = target.position();
+            long position = start + HEADER_BYTES + (long) blockCount * INDEX_ENTRY_BYTES;
+            ByteBuffer index = ByteBuffer.allocate(blockCount * INDEX_ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+            for (int wave = 0; wave < blockCount; wave += BLOCKS_PER_WAVE) {
+                final int firstBlock = wave;
+                byte[][] compressed = IntStream.range(firstBlock, Math.min(blockCount, firstBlock + BLOCKS_PER_WAVE))
+                        .parallel()
+                        .mapToObj(block -> deflate(data, (long) block * alignedBlockBytes, alignedBlockBytes, level))
+                        .toArray(byte[][]::new);
+                for (byte[] block : compressed) {
+                    index.putLong(position - start).putInt(block.length);
+                    position += writeFully(target, ByteBuffer.wrap(block), position);
+                }
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(array.typeCode())
+                    .putInt(array.floatStorage().ordinal())
+                    .putInt(array.byteOrder() == ByteOrder.BIG_ENDIAN ? 1 : 0)
+                    .putLong(array.longSize())
+                    .putInt(alignedBlockBytes)
+                    .putInt(blockCount)
+                    .flip();
+            writeFully(target, header, start);
+            writeFully(target, index.flip(), start + HEADER_BYTES);
+            target.position(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static <T> ArenaDynArray<T> read(Class<T> clazz, FileChannel source) {
+        try {
+            long start = source.position();
+            Header header = readHeader(clazz, source, start);
+            ArenaDynArray<T> array = readRange(clazz, source, start, header, 0, header.size());
+            source.position(start + HEADER_BYTES + (long) header.blockCount() * INDEX_ENTRY_BYTES
+                    + compressedBytes(source, start, header));
+            return array;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // restores elements [fromIndex, toIndex) inflating only the blocks that cover them
+    public static <T> ArenaDynArray<T> readRange(Class<T> clazz, FileChannel source, long fromIndex, long toIndex) {
+        try {
+            long start = source.position();
+            Header header = readHeader(clazz, source, start);
+            if (fromIndex < 0 || toIndex > header.size() || fromIndex > toIndex) {
+                throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") is out of bounds for size " + header.size());
+            }
+            return readRange(clazz, source, start, header, fromIndex, toIndex);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> ArenaDynArray<T> readRange(Class<T> clazz, FileChannel source, long start, Header header,
+                                                  long fromIndex, long toIndex) throws IOException {
+        // sized so reserving the range does not grow the array and leave a discarded buffer behind
+        ArenaDynArray<T> array = new ArenaDynArray<>(clazz, ArenaDynArray.capacityFor(toIndex - fromIndex),
+                ArenaDynArray.MemoryManagerType.SHARED, header.floatStorage(), header.byteOrder());
+        long elementBytes = array.elementByteSize();
+        MemorySegment target = array.reserveRawUninitialized(toIndex - fromIndex);
+        if (fromIndex == toIndex) return array;
+
+        long fromByte = fromIndex * elementBytes;
+        long toByte = toIndex * elementBytes;
+        int firstBlock = (int) (fromByte / header.blockBytes());
+        int lastBlock = (int) ((toByte - 1) / header.blockBytes());
+        ByteBuffer index = readBytes(source, start + HEADER_BYTES + (long) firstBlock * INDEX_ENTRY_BYTES,
+                (lastBlock - firstBlock + 1) * INDEX_ENTRY_BYTES);
+
+        IntStream.rangeClosed(firstBlock, lastBlock).parallel().forEach(block -> {
+            int entry = (block - firstBlock) * INDEX_ENTRY_BYTES;
+            long blockStart = (long) block * header.blockBytes();
+            int rawLength = (int) Math.min(header.blockBytes(), header.size() * elementBytes - blockStart);
+            byte[] raw;
+            try {
+                raw = inflate(readBytes(source, start + index.getLong(entry), index.getInt(entry + 8)).array(), rawLength);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // copy only the part of the block that falls inside the requested range
+            long copyFrom = Math.max(blockStart, fromByte);
+            long copyTo = Math.min(blockStart + rawLength, toByte);
+            MemorySegment.copy(MemorySegment.ofArray(raw), copyFrom - blockStart, target, copyFrom - fromByte, copyTo - copyFrom);
+        });
+        return array;
+    }
+
+    private static Header readHeader(Class<?> clazz, FileChannel source, long start) throws IOException {
+        ByteBuffer header = readBytes(source, start, HEADER_BYTES);
+        if (header.getLong() != MAGIC) {
+            throw new IllegalStateException("Channel does not contain a compressed ArenaDynArray snapshot");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported snapshot version " + version);
+        }
+        Header parsed = new Header(header.getInt(), ArenaDynArray.FloatStorage.values()[header.getInt()],
+                header.getInt() == 1 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN,
+                header.getLong(), header.getInt(), header.getInt());
+        if (!ArenaDynArray.isCompatibleTypeCode(clazz, parsed.typeCode())) {
+            throw new UnsupportedDynArrayTypeException(clazz);
+        }
+        return parsed;
+    }
+
+    private static long compressedBytes(FileChannel source, long start, Header header) throws IOException {
+        if (header.blockCount() == 0) return 0;
+        ByteBuffer last = readBytes(source, start + HEADER_BYTES + (long) (header.blockCount() - 1) * INDEX_ENTRY_BYTES, INDEX_ENTRY_BYTES);
+        long end = last.getLong() + last.getInt();
+        return end - HEADER_BYTES - (long) header.blockCount() * INDEX_ENTRY_BYTES;
+    }
+
+    // java.util.zip refuses buffers of shared segments, so every block goes through a heap window
+    private static byte[] deflate(MemorySegment data, long offset, int blockBytes, int level) {
+        int length = (int) Math.min(blockBytes, data.byteSize() - offset);
+        byte[] raw = new byte[length];
+        MemorySegment.copy(data, ValueLayout.JAVA_BYTE, offset, raw, 0, length);
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] out = new byte[Math.max(64, length / 2)];
+            int written = 0;
+            while (!deflater.finished()) {
+                if (written == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                written += deflater.deflate(out, written, out.length - written);
+            }
+            return Arrays.copyOf(out, written);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength) {
+                int inflated = inflater.inflate(raw, read, rawLength - read);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IllegalStateException("Compressed block is truncated");
+                }
+                read += inflated;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Compressed block is corrupted", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return written;
+    }
+
+    private static ByteBuffer readBytes(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IllegalStateException("Snapshot is truncated");
+            }
+        }
+        return buffer.clear();
+    }
+}
@@ -0,0 +1,133 @@
+package dynarrays;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.*;
+
+public class ArenaDictionaryArray implements AutoCloseable {
+
+    private static final short DEFAULT_START_CAPACITY = 8;
+    private static final ValueLayout.OfInt CODE_LAYOUT = ValueLayout.JAVA_INT;
+
+    private final BudgetedArena arena;
+    private final List<String> dictionary = new ArrayList<>();
+    private final Map<String, Integer> codesByValue = new HashMap<>();
+    private MemorySegment codes;
+    private long capacity;
+    private int size = 0;
+
+    public ArenaDictionaryArray() {
+        this(DEFAULT_START_CAPACITY);
+    }
+
+    public ArenaDictionaryArray(long startCapacity) {
+        this(startCapacity, ArenaDynArray.MemoryManagerType.SHARED);
+    }
+
+    public ArenaDictionaryArray(long startCapacity, ArenaDynArray.MemoryManagerType memoryManager) {
+        if (startCapacity < 0) {
+            throw new IllegalArgumentException("Start length must be non negative");
+        }
+        this.capacity = startCapacity;
+        this.arena = new BudgetedArena(memoryManager, ArenaDictionaryArray.class.getSimpleName());
+        this.codes = arena.allocate(CODE_LAYOUT.byteSize() * startCapacity, CODE_LAYOUT.byteAlignment());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int dictionarySize() {
+        return dictionary.size();
+    }
+
+    public boolean add(String value) {
+        Objects.requireNonNull(value);
+        int code = codesByValue.computeIfAbsent(value, v -> {
+            dictionary.add(v);
+            return dictionary.size() - 1;
+        });
+        size++;
+        checkSizeAndRealloc();
+        codes.setAtIndex(CODE_LAYOUT, size - 1, code);
+        return true;
+    }
+
+    public String get(int index) {
+        return dictionary.get(codeAt(index));
+    }
+
+    public int codeAt(int index) {
+        checkIndexOutOfBounds(index);
+        return codes.getAtIndex(CODE_LAYOUT, index);
+    }
+
+    public int codeOf(String value) {
+        Objects.requireNonNull(value);
+        return codesByValue.getOrDefault(value, -1);
+    }
+
+    public String valueOf(int code) {
+        if (code < 0 || code >= dictionary.size())
+            throw new IndexOutOfBoundsException("Code " + code + " is out of bounds for dictionary size " + dictionary.size());
+        return dictionary.get(code);
+    }
+
+    public int count(int code) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (codes.getAtIndex(CODE_LAYOUT, i) == code) count++;
+        }
+        return count;
+    }
+
+    public int count(String value) {
+        int code = codeOf(value);
+        return code < 0 ? 0 : count(code);
+    }
+
+    public ArenaDynArray<Integer> filter(int code) {
+        ArenaDynArray<Integer> indexes = new ArenaDynArray<>(Integer.class);
+        for (int i = 0; i < size; i++) {
+            if (codes.getAtIndex(CODE_LAYOUT, i) == code) {
+                indexes.add(i);
+            }
+        }
+        return indexes;
+    }
+
+    public ArenaDynArray<Integer> filter(String value) {
+        int code = codeOf(value);
+        return code < 0 ? new ArenaDynArray<>(Integer.class, 0) : filter(code);
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // frees the codes; arrays returned by filter are independent and closed by their callers
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    private void checkSizeAndRealloc() {
+        if (size >= capacity) {
+            var newCapacity = capacity == 0 ? 1 : capacity * 2;
+            MemorySegment newCodes = arena.allocate(CODE_LAYOUT.byteSize() * newCapacity, CODE_LAYOUT.byteAlignment());
+            MemorySegment.copy(codes, 0, newCodes, 0, codes.byteSize());
+            codes = newCodes;
+            capacity = newCapacity;
+            checkSizeAndRealloc();
+        }
+    }
+
+    private void checkIndexOutOfBounds(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for size " + size);
+    }
+}
@@ -2,15 +2,24 @@ package dynarrays;
 
 import jdk.internal.util.ArraysSupport;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemoryLayout;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.function.*;
+import java.util.zip.CRC32C;
 import java.util.stream.Stream;
 
-public class ArenaDynArray<T> implements List<T> {
+public class ArenaDynArray<T> implements List<T>, AutoCloseable {
 
     //TODO implement string
     //TODO implement void
@@ -18,6 +27,33 @@ public class ArenaDynArray<T> implements List<T> {
     //TODO implement remaining UnsupportedOperations
 
     private static final short DEFAULT_START_CAPACITY = 8;
+    private static final int DEFAULT_INLINE_CAPACITY = 16;
+
+    // mapped file header: magic, size, element byte size, capacity, type code; padded so values stay aligned
+    private static final long MAPPED_MAGIC = 0x4144594E4D415031L;
+    private static final long MAPPED_SIZE_OFFSET = 8;
+    private static final long MAPPED_ELEMENT_SIZE_OFFSET = 16;
+    private static final long MAPPED_CAPACITY_OFFSET = 24;
+    private static final long MAPPED_TYPE_OFFSET = 32;
+    private static final long MAPPED_HEADER_BYTES = 64;
+    // size and capacity are published with release and read with acquire by other processes
+    private static final VarHandle MAPPED_HEADER_LONG = ValueLayout.JAVA_LONG.varHandle();
+    private static final Path SHARED_MEMORY_DIR = Path.of("/dev/shm");
+
+    // snapshot header, always little endian: magic, version, type, float storage, byte order, size, crc32c
+    private static final long SNAPSHOT_MAGIC = 0x4144594E534E4150L;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_BYTES = 64;
+    private static final int SNAPSHOT_CHUNK_BYTES = 1 << 30;
+    private static final int CHECKSUM_CHUNK_BYTES = 1 << 16;
+
+    // delta header: magic, size, dirty page count, page size, byte order; then per page its index, length and bytes
+    private static final long DELTA_MAGIC = 0x4144594E44454C54L;
+    private static final int DELTA_HEADER_BYTES = 28;
+    private static final int DELTA_PAGE_HEADER_BYTES = 12;
+    static final int DIRTY_PAGE_BYTES = 4096;
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
 
     private enum TypeConstant {
         INTEGER_PRIMITIVE(int.class, ValueLayout.JAVA_INT, 0),
@@ -36,7 +72,11 @@ public class ArenaDynArray<T> implements List<T> {
         BOOLEAN_WRAPPER(Boolean.class, ValueLayout.JAVA_BOOLEAN, false),
 
         CHAR_PRIMITIVE(char.class, ValueLayout.JAVA_CHAR, '\0'),
-        CHAR_WRAPPER(Character.class, ValueLayout.JAVA_CHAR, '\0');
+        CHAR_WRAPPER(Character.class, ValueLayout.JAVA_CHAR, '\0'),
+
+        ENUM_BYTE(Enum.class, ValueLayout.JAVA_BYTE, null),
+        ENUM_SHORT(Enum.class, ValueLayout.JAVA_SHORT, null),
+        ENUM_INT(Enum.class, ValueLayout.JAVA_INT, null);
 
         final Class<?> type;
         final ValueLayout layout;
@@ -50,9 +90,13 @@ public class ArenaDynArray<T> implements List<T> {
 
         private static final java.util.Map<Class<?>, TypeConstant> BY_TYPE =
                 java.util.Arrays.stream(values())
+                        .filter(tc -> tc.type != Enum.class)
                         .collect(java.util.stream.Collectors.toMap(tc -> tc.type, tc -> tc));
 
         static TypeConstant getBy(Class<?> clazz) {
+            if (clazz.isEnum()) {
+                return forEnum(clazz);
+            }
             TypeConstant tc = BY_TYPE.get(clazz);
             if (tc == null) {
                 throw new UnsupportedDynArrayTypeException(clazz);
@@ -60,21 +104,46 @@ public class ArenaDynArray<T> implements List<T> {
             return tc;
         }
 
+        // ordinals are stored unsigned in the narrowest layout that can hold them all
+        private static TypeConstant forEnum(Class<?> clazz) {
+            int constants = clazz.getEnumConstants().length;
+            if (constants <= 1 << Byte.SIZE) return ENUM_BYTE;
+            if (constants <= 1 << Short.SIZE) return ENUM_SHORT;
+            return ENUM_INT;
+        }
+
+        boolean supports(Class<?> clazz) {
+            return type == clazz || (type == Enum.class && clazz.isEnum());
+        }
+
         @SuppressWarnings("unchecked")
         <T> T zero() {
             return (T) zero;
         }
     }
 
-    private final Arena arena;
+    private Arena arena;
+    private final NativeAllocator allocator;
     private final Class<T> clazz;
-    private final ValueLayout layout;
-    private final IntFunction<T> reader;
-    private final BiConsumer<T, Integer> setter;
+    private final TypeConstant typeConstant;
+    private ValueLayout layout;
+    private final LongFunction<T> reader;
+    private final ObjLongConsumer<T> setter;
     private final T zero;
+    private final T[] enumConstants;
+    private final FloatStorage floatStorage;
+    private final MemoryManagerType memoryManager;
+    private final long inlineBytes;
+    private final FileChannel channel;
+    private final boolean readOnly;
+    private MemorySegment mappedFile;
+    // each file mapping lives in its own arena, so a remap can unmap the one it replaces
+    private Arena mappingArena;
     private MemorySegment nativeValues;
+    private long[] dirtyPages;
+    private long budgetedBytes;
     private long capacity;
-    private int size = 0;
+    private long size = 0;
 
     public ArenaDynArray(Class<T> clazz) {
         this(clazz, DEFAULT_START_CAPACITY);
@@ -85,19 +154,159 @@ public class ArenaDynArray<T> implements List<T> {
     }
 
     public ArenaDynArray(Class<T> clazz, long startCapacity, MemoryManagerType memoryManager) {
+        this(clazz, startCapacity, memoryManager, FloatStorage.FLOAT32);
+    }
+
+    public ArenaDynArray(Class<T> clazz, long startCapacity, MemoryManagerType memoryManager, FloatStorage floatStorage) {
+        this(clazz, startCapacity, memoryManager, floatStorage, ByteOrder.nativeOrder());
+    }
+
+    // elements are stored in byteOrder, so the raw bytes can be exchanged with formats of that endianness as is
+    public ArenaDynArray(Class<T> clazz, long startCapacity, MemoryManagerType memoryManager, FloatStorage floatStorage, ByteOrder byteOrder) {
+        this(clazz, startCapacity, memoryManager, floatStorage, byteOrder, 0, null, null, false);
+    }
+
+    // draws memory from a shared slab pool instead of opening an arena per array
+    public ArenaDynArray(Class<T> clazz, long startCapacity, ArenaSlabPool pool) {
+        this(clazz, startCapacity, MemoryManagerType.SHARED, FloatStorage.FLOAT32, ByteOrder.nativeOrder(),
+                0, Objects.requireNonNull(pool), null, false);
+    }
+
+    // allocates from an arena the caller owns; closing the array leaves the arena open
+    public ArenaDynArray(Class<T> clazz, long startCapacity, Arena arena) {
+        this(clazz, startCapacity, MemoryManagerType.SHARED, FloatStorage.FLOAT32, ByteOrder.nativeOrder(),
+                0, new CallerArenaAllocator(Objects.requireNonNull(arena), clazz.getSimpleName()), null, false);
+    }
+
+    // memory from a caller's arena stays allocated until the caller closes it, and is charged until then
+    private record CallerArenaAllocator(Arena arena, String type) implements NativeAllocator {
+
+        @Override
+        public MemorySegment allocate(long byteSize, long byteAlignment) {
+            ArenaMemoryBudget.global().reserve(type, byteSize);
+            MemorySegment segment;
+            try {
+                segment = arena.allocate(byteSize, byteAlignment);
+            } catch (RuntimeException | Error e) {
+                ArenaMemoryBudget.global().release(type, byteSize);
+                throw e;
+            }
+            ArenaMemoryBudget.global().releaseWhenClosed(type, byteSize, arena.scope());
+            return segment;
+        }
+
+        @Override
+        public boolean chargesBudget() {
+            return true;
+        }
+    }
+
+    // Scope.newArray registers the array once it is constructed
+    private ArenaDynArray(Class<T> clazz, long startCapacity, Scope scope) {
+        this(clazz, startCapacity, MemoryManagerType.SHARED, FloatStorage.FLOAT32, ByteOrder.nativeOrder(),
+                0, scope.allocator, null, false);
+    }
+
+    private ArenaDynArray(Class<T> clazz, long startCapacity, MemoryManagerType memoryManager, FloatStorage floatStorage,
+                          ByteOrder byteOrder, long inlineCapacity, NativeAllocator allocator, FileChannel channel, boolean readOnly) {
         this.clazz = clazz;
 
-        TypeConstant typeConstant = TypeConstant.getBy(clazz);
-        this.layout = typeConstant.layout;
-        this.zero = typeConstant.zero();
+        this.typeConstant = TypeConstant.getBy(clazz);
+        this.floatStorage = validateAndGetFloatStorage(floatStorage);
+        this.layout = (floatStorage == FloatStorage.FLOAT32 ? typeConstant.layout : ValueLayout.JAVA_SHORT)
+                .withOrder(Objects.requireNonNull(byteOrder));
+        this.inlineBytes = inlineCapacity * layout.byteSize();
+        if (inlineBytes > 0) {
+            // inline storage is a byte[] heap segment, which only supports unaligned access
+            this.layout = layout.withByteAlignment(1);
+        }
+        this.enumConstants = clazz.getEnumConstants();
+        this.zero = enumConstants == null ? typeConstant.zero()
+                : enumConstants.length > 0 ? enumConstants[0] : null;
 
         this.capacity = validateAndGetCapacity(startCapacity);
-        this.arena = initializeArena(memoryManager);
+        this.memoryManager = memoryManager;
+        this.allocator = allocator != null ? allocator : nativeAllocatorFor(memoryManager);
+        // hybrid arrays open their arena only once they spill off the heap
+        this.arena = this.allocator == null && inlineBytes == 0 ? initializeArena(memoryManager) : null;
+        this.channel = channel;
+        this.readOnly = readOnly;
 
         this.reader = getValueReader();
         this.setter = getValueSetter();
 
-        this.nativeValues = allocateMemory(startCapacity);
+        this.nativeValues = channel == null ? allocateMemory(startCapacity) : openMappedFile(startCapacity);
+    }
+
+    public static <T> ArenaDynArray<T> hybrid(Class<T> clazz) {
+        return hybrid(clazz, DEFAULT_INLINE_CAPACITY);
+    }
+
+    // keeps up to inlineCapacity elements in an on-heap array and moves them to native memory once it grows past that
+    public static <T> ArenaDynArray<T> hybrid(Class<T> clazz, int inlineCapacity) {
+        if (inlineCapacity < 1) {
+            throw new IllegalArgumentException("Inline capacity must be positive");
+        }
+        // one spare slot: the array grows as soon as size reaches capacity
+        return new ArenaDynArray<>(clazz, inlineCapacity + 1, MemoryManagerType.SHARED, FloatStorage.FLOAT32,
+                ByteOrder.nativeOrder(), inlineCapacity + 1, null, null, false);
+    }
+
+    public static <T> ArenaDynArray<T> mapped(Class<T> clazz, Path file) {
+        return mapped(clazz, file, DEFAULT_START_CAPACITY);
+    }
+
+    // opens the array stored in file, or creates it with startCapacity if the file is empty
+    public static <T> ArenaDynArray<T> mapped(Class<T> clazz, Path file, long startCapacity) {
+        return openMapped(clazz, file, startCapacity, false);
+    }
+
+    // attaches read-only to an array another process (or instance) maps for writing; call refresh() to observe its updates
+    public static <T> ArenaDynArray<T> attach(Class<T> clazz, Path file) {
+        return openMapped(clazz, file, 0, true);
+    }
+
+    public static <T> ArenaDynArray<T> createShared(Class<T> clazz, String name, long startCapacity) {
+        return mapped(clazz, SHARED_MEMORY_DIR.resolve(name), startCapacity);
+    }
+
+    public static <T> ArenaDynArray<T> attachShared(Class<T> clazz, String name) {
+        return attach(clazz, SHARED_MEMORY_DIR.resolve(name));
+    }
+
+    private static <T> ArenaDynArray<T> openMapped(Class<T> clazz, Path file, long startCapacity, boolean readOnly) {
+        Objects.requireNonNull(file);
+        FileChannel channel;
+        try {
+            channel = readOnly
+                    ? FileChannel.open(file, StandardOpenOption.READ)
+                    : FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            return new ArenaDynArray<>(clazz, startCapacity, MemoryManagerType.SHARED, FloatStorage.FLOAT32,
+                    ByteOrder.nativeOrder(), 0, null, channel, readOnly);
+        } catch (RuntimeException e) {
+            try {
+                channel.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private FloatStorage validateAndGetFloatStorage(FloatStorage floatStorage) {
+        Objects.requireNonNull(floatStorage);
+        if (floatStorage != FloatStorage.FLOAT32 && !isFloatType()) {
+            throw new UnsupportedDynArrayTypeException(clazz);
+        }
+        return floatStorage;
+    }
+
+    private boolean isFloatType() {
+        return clazz == float.class || clazz == Float.class;
     }
 
     private long validateAndGetCapacity(long startCapacity) {
@@ -107,11 +316,21 @@ public class ArenaDynArray<T> implements List<T> {
         return startCapacity;
     }
 
-    private Arena initializeArena(MemoryManagerType memoryManager) {
+    // memory managers that bypass arenas; null means the array allocates from its own arena
+    private static NativeAllocator nativeAllocatorFor(MemoryManagerType memoryManager) {
+        return switch (memoryManager) {
+            case HUGE_PAGES -> HugePageAllocator.INSTANCE;
+            case MALLOC -> MallocAllocator.INSTANCE;
+            case SHARED, CONFINED, GLOBAL -> null;
+        };
+    }
+
+    static Arena initializeArena(MemoryManagerType memoryManager) {
         Arena initArena = switch (memoryManager) {
             case GLOBAL -> Arena.global();
             case CONFINED -> Arena.ofConfined();
-            case SHARED -> Arena.ofShared();
+            // arena based structures have no huge page or malloc path and use a shared arena instead
+            case SHARED, HUGE_PAGES, MALLOC -> Arena.ofShared();
         };
 
         if (initArena == null) {
@@ -121,13 +340,560 @@ public class ArenaDynArray<T> implements List<T> {
         return initArena;
     }
 
+    private MemorySegment openMappedFile(long startCapacity) {
+        long fileSize;
+        try {
+            fileSize = channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (fileSize == 0) {
+            if (readOnly) {
+                throw new IllegalStateException("Cannot attach to an empty file");
+            }
+            MemorySegment values = mapFile(startCapacity);
+            mappedFile.set(ValueLayout.JAVA_LONG, 0, MAPPED_MAGIC);
+            mappedFile.set(ValueLayout.JAVA_LONG, MAPPED_ELEMENT_SIZE_OFFSET, layout.byteSize());
+            mappedFile.set(ValueLayout.JAVA_INT, MAPPED_TYPE_OFFSET, typeConstant.ordinal());
+            return values;
+        }
+
+        if (fileSize < MAPPED_HEADER_BYTES) {
+            throw new IllegalStateException("File is too small to be an ArenaDynArray");
+        }
+        capacity = (fileSize - MAPPED_HEADER_BYTES) / layout.byteSize();
+        if (readOnly) {
+            // the writer may still be extending the file: trust only the published capacity
+            capacity = Math.min(capacity, mappedCapacity());
+        }
+        MemorySegment values = mapFile(capacity);
+        try {
+            if (mappedFile.get(ValueLayout.JAVA_LONG, 0) != MAPPED_MAGIC) {
+                throw new IllegalStateException("File is not an ArenaDynArray");
+            }
+            // the element size alone would let a Long file open as Double, or an Integer file as Float
+            if (mappedFile.get(ValueLayout.JAVA_LONG, MAPPED_ELEMENT_SIZE_OFFSET) != layout.byteSize()
+                    || !isCompatibleTypeCode(clazz, mappedFile.get(ValueLayout.JAVA_INT, MAPPED_TYPE_OFFSET))) {
+                throw new UnsupportedDynArrayTypeException(clazz);
+            }
+        } catch (RuntimeException e) {
+            mappingArena.close();
+            throw e;
+        }
+        size = publishedSize();
+        return values;
+    }
+
+    // the capacity published in the header, read through a mapping of the header alone
+    private long mappedCapacity() {
+        try (Arena headerArena = Arena.ofConfined()) {
+            MemorySegment header = channel.map(FileChannel.MapMode.READ_ONLY, 0, MAPPED_HEADER_BYTES, headerArena);
+            return (long) MAPPED_HEADER_LONG.getAcquire(header, MAPPED_CAPACITY_OFFSET);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // maps the file for capacity elements in a fresh arena and unmaps the previous mapping; slices of the old
+    // mapping fail fast afterwards instead of keeping it mapped until the array is closed
+    private void remapFile(long capacity) {
+        Arena previous = mappingArena;
+        nativeValues = mapFile(capacity);
+        previous.close();
+    }
+
+    private MemorySegment mapFile(long capacity) {
+        long valuesBytes = capacity * layout.byteSize();
+        Arena newMappingArena = Arena.ofShared();
+        try {
+            // mapping past the end of the file extends it
+            mappedFile = channel.map(readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE,
+                    0, MAPPED_HEADER_BYTES + valuesBytes, newMappingArena);
+        } catch (IOException e) {
+            newMappingArena.close();
+            throw new UncheckedIOException(e);
+        }
+        mappingArena = newMappingArena;
+        if (!readOnly) {
+            MAPPED_HEADER_LONG.setRelease(mappedFile, MAPPED_CAPACITY_OFFSET, capacity);
+        }
+        return mappedFile.asSlice(MAPPED_HEADER_BYTES, valuesBytes);
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public boolean isInline() {
+        return inlineBytes > 0 && !nativeValues.isNative();
+    }
+
+    // false while a HUGE_PAGES array is still too small for a huge page or huge pages are unavailable
+    public boolean isHugePageBacked() {
+        return allocator == HugePageAllocator.INSTANCE && HugePageAllocator.INSTANCE.isHugePageMapping(nativeValues);
+    }
+
+    public ByteOrder byteOrder() {
+        return layout.order();
+    }
+
+    // reverses the bytes of every element in place and flips the storage order, so values read back unchanged
+    public void byteSwap() {
+        assertWritable();
+        if (channel != null) {
+            throw new UnsupportedOperationException("Mapped arrays are stored in native byte order");
+        }
+        long elementBytes = layout.byteSize();
+        long dataBytes = size * elementBytes;
+        // swap a long word at a time; reverseBytes is an intrinsic, the masks handle the narrower lanes
+        long offset = 0;
+        if (elementBytes > 1) {
+            for (; offset + Long.BYTES <= dataBytes; offset += Long.BYTES) {
+                long word = nativeValues.get(ValueLayout.JAVA_LONG_UNALIGNED, offset);
+                nativeValues.set(ValueLayout.JAVA_LONG_UNALIGNED, offset, swapLanes(word, elementBytes));
+            }
+        }
+        for (; offset < dataBytes; offset += elementBytes) {
+            if (elementBytes == Short.BYTES) {
+                nativeValues.set(ValueLayout.JAVA_SHORT_UNALIGNED, offset, Short.reverseBytes(nativeValues.get(ValueLayout.JAVA_SHORT_UNALIGNED, offset)));
+            } else if (elementBytes == Integer.BYTES) {
+                nativeValues.set(ValueLayout.JAVA_INT_UNALIGNED, offset, Integer.reverseBytes(nativeValues.get(ValueLayout.JAVA_INT_UNALIGNED, offset)));
+            }
+        }
+        layout = layout.withOrder(layout.order() == ByteOrder.BIG_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        markDirty(0, size);
+    }
+
+    private static long swapLanes(long word, long laneBytes) {
+        return switch ((int) laneBytes) {
+            case Long.BYTES -> Long.reverseBytes(word);
+            case Integer.BYTES -> Long.rotateLeft(Long.reverseBytes(word), Integer.SIZE);
+            default -> ((word & 0x00FF00FF00FF00FFL) << Byte.SIZE) | ((word >>> Byte.SIZE) & 0x00FF00FF00FF00FFL);
+        };
+    }
+
+    // pulls the size and capacity published by the writer, remapping if the writer has grown the file
+    public void refresh() {
+        if (!readOnly || mappedFile == null) return;
+        long publishedCapacity = (long) MAPPED_HEADER_LONG.getAcquire(mappedFile, MAPPED_CAPACITY_OFFSET);
+        if (publishedCapacity > capacity) {
+            remapFile(publishedCapacity);
+            capacity = publishedCapacity;
+        }
+        size = publishedSize();
+    }
+
+    // a torn or corrupt header must not expose elements past the mapped capacity
+    private long publishedSize() {
+        return Math.clamp((long) MAPPED_HEADER_LONG.getAcquire(mappedFile, MAPPED_SIZE_OFFSET), 0, capacity);
+    }
+
+    // makes writes visible to readers of the mapping: data stores happen before the size store
+    private void publishSize() {
+        if (channel != null && !readOnly) {
+            MAPPED_HEADER_LONG.setRelease(mappedFile, MAPPED_SIZE_OFFSET, size);
+        }
+    }
+
+    private void assertWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("ArenaDynArray is attached read-only");
+        }
+    }
+
+    public boolean isMapped() {
+        return channel != null;
+    }
+
+    public void force() {
+        if (channel == null || readOnly) return;
+        publishSize();
+        mappedFile.force();
+    }
+
+    @Override
+    public void close() {
+        if (channel != null) {
+            force();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            mappingArena.close();
+        }
+        if (allocator != null) {
+            // the memory goes back to the allocator; drop the reference so this array cannot touch it again
+            allocator.free(nativeValues);
+            nativeValues = MemorySegment.NULL;
+            size = 0;
+            capacity = 0;
+            releaseBudget();
+        } else if (arena != null && memoryManager != MemoryManagerType.GLOBAL) {
+            arena.close();
+            releaseBudget();
+        }
+    }
+
+    public void writeTo(FileChannel target) {
+        Objects.requireNonNull(target);
+        long dataBytes = size * layout.byteSize();
+        try {
+            long start = target.position();
+            for (long offset = 0; offset < dataBytes; offset += SNAPSHOT_CHUNK_BYTES) {
+                ByteBuffer chunk = nativeValues.asSlice(offset, Math.min(SNAPSHOT_CHUNK_BYTES, dataBytes - offset)).asByteBuffer();
+                writeFully(target, chunk, start + SNAPSHOT_HEADER_BYTES + offset);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(SNAPSHOT_MAGIC)
+                    .putInt(SNAPSHOT_VERSION)
+                    .putInt(typeConstant.ordinal())
+                    .putInt(floatStorage.ordinal())
+                    .putInt(layout.order() == ByteOrder.BIG_ENDIAN ? 1 : 0)
+                    .putLong(size)
+                    .putLong(checksum(nativeValues, dataBytes))
+                    .clear();
+            writeFully(target, header, start);
+            target.position(start + SNAPSHOT_HEADER_BYTES + dataBytes);
+            clearDirtyPages();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static <T> ArenaDynArray<T> readFrom(Class<T> clazz, FileChannel source) {
+        Objects.requireNonNull(source);
+        try {
+            long start = source.position();
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(source, header, start);
+            header.flip();
+
+            if (header.getLong() != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("Channel does not contain an ArenaDynArray snapshot");
+            }
+            int version = header.getInt();
+            if (version != SNAPSHOT_VERSION) {
+                throw new IllegalStateException("Unsupported snapshot version " + version);
+            }
+            TypeConstant storedType = TypeConstant.values()[header.getInt()];
+            FloatStorage storedFloatStorage = FloatStorage.values()[header.getInt()];
+            ByteOrder storedOrder = header.getInt() == 1 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            long storedSize = header.getLong();
+            long storedChecksum = header.getLong();
+
+            if (storedType.layout != TypeConstant.getBy(clazz).layout) {
+                throw new UnsupportedDynArrayTypeException(clazz);
+            }
+
+            // the restored array keeps the snapshot's byte order so the data is copied without swapping
+            ArenaDynArray<T> array = new ArenaDynArray<>(clazz, storedSize, MemoryManagerType.SHARED, storedFloatStorage, storedOrder);
+            long dataBytes = storedSize * array.layout.byteSize();
+            for (long offset = 0; offset < dataBytes; offset += SNAPSHOT_CHUNK_BYTES) {
+                ByteBuffer chunk = array.nativeValues.asSlice(offset, Math.min(SNAPSHOT_CHUNK_BYTES, dataBytes - offset)).asByteBuffer();
+                readFully(source, chunk, start + SNAPSHOT_HEADER_BYTES + offset);
+            }
+            if (checksum(array.nativeValues, dataBytes) != storedChecksum) {
+                array.close();
+                throw new IllegalStateException("Snapshot checksum mismatch");
+            }
+            array.size = storedSize;
+            source.position(start + SNAPSHOT_HEADER_BYTES + dataBytes);
+            return array;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // dirty tracking starts clean: the caller is expected to hold a base snapshot taken now
+    public void enableDirtyPageTracking() {
+        dirtyPages = new long[dirtyPageWords()];
+    }
+
+    public boolean isDirtyPageTrackingEnabled() {
+        return dirtyPages != null;
+    }
+
+    public int dirtyPageCount() {
+        if (dirtyPages == null) return 0;
+        int count = 0;
+        for (long word : dirtyPages) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // writes only the pages changed since the last writeTo/writeDelta and marks them clean
+    public void writeDelta(FileChannel target) {
+        Objects.requireNonNull(target);
+        if (dirtyPages == null) {
+            throw new IllegalStateException("Dirty page tracking is not enabled");
+        }
+        long dataBytes = size * layout.byteSize();
+        long usedPages = (dataBytes + DIRTY_PAGE_BYTES - 1) / DIRTY_PAGE_BYTES;
+        try {
+            long position = target.position();
+            long start = position;
+            position += DELTA_HEADER_BYTES;
+            int written = 0;
+            ByteBuffer pageHeader = ByteBuffer.allocate(DELTA_PAGE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int word = 0; word < dirtyPages.length; word++) {
+                long bits = dirtyPages[word];
+                while (bits != 0) {
+                    long page = (long) word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (page >= usedPages) continue;
+
+                    long pageOffset = page * DIRTY_PAGE_BYTES;
+                    int length = (int) Math.min(DIRTY_PAGE_BYTES, dataBytes - pageOffset);
+                    pageHeader.clear();
+                    pageHeader.putLong(page).putInt(length).flip();
+                    writeFully(target, pageHeader, position);
+                    position += DELTA_PAGE_HEADER_BYTES;
+                    writeFully(target, nativeValues.asSlice(pageOffset, length).asByteBuffer(), position);
+                    position += length;
+                    written++;
+                }
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(DELTA_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(DELTA_MAGIC).putLong(size).putInt(written).putInt(DIRTY_PAGE_BYTES)
+                    .putInt(layout.order() == ByteOrder.BIG_ENDIAN ? 1 : 0).flip();
+            writeFully(target, header, start);
+            target.position(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        clearDirtyPages();
+    }
+
+    public void applyDelta(FileChannel source) {
+        Objects.requireNonNull(source);
+        assertWritable();
+        try {
+            long position = source.position();
+            ByteBuffer header = ByteBuffer.allocate(DELTA_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(source, header, position);
+            header.flip();
+            if (header.getLong() != DELTA_MAGIC) {
+                throw new IllegalStateException("Channel does not contain an ArenaDynArray delta");
+            }
+            long deltaSize = header.getLong();
+            int pages = header.getInt();
+            if (header.getInt() != DIRTY_PAGE_BYTES) {
+                throw new IllegalStateException("Delta page size does not match " + DIRTY_PAGE_BYTES);
+            }
+            ByteOrder deltaOrder = header.getInt() == 1 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            position += DELTA_HEADER_BYTES;
+
+            if (deltaOrder != layout.order()) {
+                // the writer swapped its byte order since the previous delta; its pages are stored in the new order
+                byteSwap();
+            }
+            if (deltaSize > size) {
+                checkSizeAndRealloc(deltaSize);
+                size = deltaSize;
+            }
+            ByteBuffer pageHeader = ByteBuffer.allocate(DELTA_PAGE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < pages; i++) {
+                pageHeader.clear();
+                readFully(source, pageHeader, position);
+                pageHeader.flip();
+                long pageOffset = pageHeader.getLong() * DIRTY_PAGE_BYTES;
+                int length = pageHeader.getInt();
+                position += DELTA_PAGE_HEADER_BYTES;
+                readFully(source, nativeValues.asSlice(pageOffset, length).asByteBuffer(), position);
+                position += length;
+            }
+            size = deltaSize;
+            publishSize();
+            source.position(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // rebuilds an array from a base snapshot followed by the deltas written after it, in order
+    public static <T> ArenaDynArray<T> replay(Class<T> clazz, FileChannel base, List<FileChannel> deltas) {
+        Objects.requireNonNull(deltas);
+        ArenaDynArray<T> array = readFrom(clazz, base);
+        for (FileChannel delta : deltas) {
+            array.applyDelta(delta);
+        }
+        return array;
+    }
+
+    private int dirtyPageWords() {
+        long pages = (capacity * layout.byteSize() + DIRTY_PAGE_BYTES - 1) / DIRTY_PAGE_BYTES;
+        return Math.toIntExact((pages + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    private void markDirty(long fromIndex, long toIndex) {
+        if (dirtyPages == null || fromIndex >= toIndex) return;
+        long firstPage = fromIndex * layout.byteSize() / DIRTY_PAGE_BYTES;
+        long lastPage = (toIndex * layout.byteSize() - 1) / DIRTY_PAGE_BYTES;
+        for (long page = firstPage; page <= lastPage; page++) {
+            dirtyPages[(int) (page >>> 6)] |= 1L << page;
+        }
+    }
+
+    private void clearDirtyPages() {
+        if (dirtyPages != null) {
+            Arrays.fill(dirtyPages, 0L);
+        }
+    }
+
+    // CRC32C rejects buffers of shared segments, so the bytes go through a small heap window
+    private static long checksum(MemorySegment segment, long byteSize) {
+        CRC32C checksum = new CRC32C();
+        byte[] window = new byte[(int) Math.min(CHECKSUM_CHUNK_BYTES, byteSize)];
+        for (long offset = 0; offset < byteSize; offset += window.length) {
+            int length = (int) Math.min(window.length, byteSize - offset);
+            MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, offset, window, 0, length);
+            checksum.update(window, 0, length);
+        }
+        return checksum.getValue();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IllegalStateException("Snapshot is truncated");
+            }
+            position += read;
+        }
+    }
+
+    // read-only view over size elements of a foreign file format, mapped into the array's own arena
+    static <T> ArenaDynArray<T> mapReadOnly(Class<T> clazz, FloatStorage floatStorage, ByteOrder byteOrder,
+                                            FileChannel channel, long offset, long size) {
+        ArenaDynArray<T> array = new ArenaDynArray<>(clazz, 0, MemoryManagerType.SHARED, floatStorage, byteOrder, 0, null, null, true);
+        try {
+            array.nativeValues = channel.map(FileChannel.MapMode.READ_ONLY, offset, size * array.layout.byteSize(), array.arena);
+        } catch (IOException e) {
+            array.close();
+            throw new UncheckedIOException(e);
+        }
+        array.capacity = size;
+        array.size = size;
+        return array;
+    }
+
+    Class<T> elementClass() {
+        return clazz;
+    }
+
+    FloatStorage floatStorage() {
+        return floatStorage;
+    }
+
+    long elementByteSize() {
+        return layout.byteSize();
+    }
+
+    // view over the raw bytes of elements [fromIndex, toIndex)
+    MemorySegment rawSlice(long fromIndex, long toIndex) {
+        return nativeValues.asSlice(fromIndex * layout.byteSize(), (toIndex - fromIndex) * layout.byteSize());
+    }
+
+    // appends whole elements copied from raw bytes in this array's layout
+    void appendRaw(MemorySegment source) {
+        long count = source.byteSize() / layout.byteSize();
+        if (count == 0) return;
+        MemorySegment.copy(source, 0, reserveRawUninitialized(count), 0, count * layout.byteSize());
+    }
+
+    // grows the array by count elements and returns their raw bytes for the caller to fill
+    MemorySegment reserveRaw(long count) {
+        return reserveRaw(count, false);
+    }
+
+    // like reserveRaw, but the caller overwrites every returned byte, so MALLOC growth does not zero them first
+    MemorySegment reserveRawUninitialized(long count) {
+        return reserveRaw(count, true);
+    }
+
+    private MemorySegment reserveRaw(long count, boolean overwritten) {
+        assertWritable();
+        final long start = size;
+        long newSize = Math.addExact(size, count);
+        checkSizeAndRealloc(newSize, overwritten ? newSize * layout.byteSize() : 0);
+        size = newSize;
+        markDirty(start, size);
+        publishSize();
+        return rawSlice(start, size);
+    }
+
+    // start capacity for an array that is filled with exactly elements: it grows as soon as its size reaches the
+    // capacity, and arena growth keeps the old buffer, so one spare slot avoids holding three times the data
+    static long capacityFor(long elements) {
+        return elements + 1;
+    }
+
+    int typeCode() {
+        return typeConstant.ordinal();
+    }
+
+    static boolean isCompatibleTypeCode(Class<?> clazz, int typeCode) {
+        TypeConstant[] typeConstants = TypeConstant.values();
+        return typeCode >= 0 && typeCode < typeConstants.length
+                && typeConstants[typeCode].layout == TypeConstant.getBy(clazz).layout;
+    }
+
     private MemorySegment allocateMemory(long capacity) {
         MemoryLayout memoryLayout = MemoryLayout.sequenceLayout(capacity, layout);
-        return arena.allocate(memoryLayout.byteSize(), memoryLayout.byteAlignment());
+        long byteSize = memoryLayout.byteSize();
+        return budgeted(byteSize > inlineBytes ? byteSize : 0, () -> allocateSegment(byteSize, memoryLayout.byteAlignment()));
+    }
+
+    // native bytes count against the global budget from before they are allocated until close() frees them
+    private MemorySegment budgeted(long byteSize, Supplier<MemorySegment> allocation) {
+        if (byteSize <= 0 || allocator != null && allocator.chargesBudget()) return allocation.get();
+        ArenaMemoryBudget.global().reserve(clazz.getSimpleName(), byteSize);
+        try {
+            MemorySegment segment = allocation.get();
+            budgetedBytes += byteSize;
+            return segment;
+        } catch (RuntimeException | Error e) {
+            ArenaMemoryBudget.global().release(clazz.getSimpleName(), byteSize);
+            throw e;
+        }
+    }
+
+    private void releaseBudget() {
+        ArenaMemoryBudget.global().release(clazz.getSimpleName(), budgetedBytes);
+        budgetedBytes = 0;
+    }
+
+    private MemorySegment allocateSegment(long byteSize, long byteAlignment) {
+        if (inlineBytes > 0 && byteSize <= inlineBytes) {
+            return MemorySegment.ofArray(new byte[(int) byteSize]);
+        }
+        if (allocator != null) {
+            return allocator.allocate(byteSize, byteAlignment);
+        }
+        if (arena == null) {
+            arena = initializeArena(memoryManager);
+        }
+        return arena.allocate(byteSize, byteAlignment);
     }
 
+    // the List view saturates at Integer.MAX_VALUE; longSize() is exact
     @Override
     public int size() {
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    public long longSize() {
         return size;
     }
 
@@ -142,8 +908,8 @@ public class ArenaDynArray<T> implements List<T> {
             return indexOf(null) != -1;
         }
         T t = clazz.cast(o);
-        for (int i = 0; i < size; i++) {
-            if (t.equals(get(i))) {
+        for (long i = 0; i < size; i++) {
+            if (t.equals(getAt(i))) {
                 return true;
             }
         }
@@ -162,14 +928,14 @@ public class ArenaDynArray<T> implements List<T> {
         if (size == 0) return;
         assertSupportedOperation();
 
-        for (int i = 0; i < size; i++) {
-            action.accept(get(i));
+        for (long i = 0; i < size; i++) {
+            action.accept(getAt(i));
         }
 
     }
 
     private void assertSupportedOperation() {
-        if (TypeConstant.getBy(clazz).type != clazz)
+        if (!TypeConstant.getBy(clazz).supports(clazz))
             throw new UnsupportedDynArrayTypeException(clazz);
     }
 
@@ -177,9 +943,9 @@ public class ArenaDynArray<T> implements List<T> {
     public Object[] toArray() {
         assertSupportedOperation();
         if (size == 0) return new Object[0];
-        Object[] result = new Object[size];
+        Object[] result = new Object[listSize()];
 
-        for (int i = 0; i < size; i++) {
+        for (int i = 0; i < result.length; i++) {
             result[i] = get(i);
         }
 
@@ -194,7 +960,7 @@ public class ArenaDynArray<T> implements List<T> {
             throw new IllegalArgumentException("Array must be of type " + clazz.getName());
         T1[] r = a.length >= size ? a :
                 (T1[]) java.lang.reflect.Array
-                        .newInstance(a.getClass().getComponentType(), size);
+                        .newInstance(a.getClass().getComponentType(), listSize());
         Iterator<T> it = iterator();
 
         for (int i = 0; i < r.length; i++) {
@@ -241,20 +1007,23 @@ public class ArenaDynArray<T> implements List<T> {
 
     @Override
     public boolean add(T element) {
+        assertWritable();
+        checkSizeAndRealloc(size + 1);
         size++;
-        checkSizeAndRealloc();
-        set(size - 1, element);
+        setAt(size - 1, element);
         return true;
     }
 
     @Override
     public boolean remove(Object o) {
         Objects.requireNonNull(o);
+        assertWritable();
         T t = clazz.cast(o);
-        for (int i = 0; i < size; i++) {
-            if (t.equals(get(i))) {
+        for (long i = 0; i < size; i++) {
+            if (t.equals(getAt(i))) {
                 shiftLeftValuesAtIndex(i);
                 size--;
+                publishSize();
                 return true;
             }
         }
@@ -309,18 +1078,19 @@ public class ArenaDynArray<T> implements List<T> {
     @Override
     public boolean removeIf(Predicate<? super T> filter) {
         Objects.requireNonNull(filter);
+        assertWritable();
         boolean removed = false;
         if (size == 0) return false;
 
-        int i = 0;
+        long i = 0;
         while (i < size) {
-            final T value = get(i);
+            final T value = getAt(i);
 
             if (filter.test(value)) {
                 shiftLeftValuesAtIndex(i);
 
-                final int lastIndex = size - 1;
-                set(lastIndex, zero);
+                final long lastIndex = size - 1;
+                setAt(lastIndex, zero);
 
                 size--;
                 removed = true;
@@ -330,32 +1100,35 @@ public class ArenaDynArray<T> implements List<T> {
                 i++;
             }
         }
+        publishSize();
         return removed;
     }
 
     @Override
     public boolean retainAll(Collection<?> c) {
         Objects.requireNonNull(c);
+        assertWritable();
         boolean modified = false;
-        int i = 0;
+        long i = 0;
         while (i < size) {
-            if (!c.contains(get(i))) {
+            if (!c.contains(getAt(i))) {
                 shiftLeftValuesAtIndex(i);
-                set(size - 1, zero);
+                setAt(size - 1, zero);
                 size--;
                 modified = true;
             } else {
                 i++;
             }
         }
+        publishSize();
         return modified;
     }
 
     @Override
     public void replaceAll(UnaryOperator<T> operator) {
         Objects.requireNonNull(operator);
-        for (int i = 0; i < size; i++) {
-            set(i, operator.apply(get(i)));
+        for (long i = 0; i < size; i++) {
+            setAt(i, operator.apply(getAt(i)));
         }
     }
 
@@ -364,23 +1137,31 @@ public class ArenaDynArray<T> implements List<T> {
     public void sort(Comparator<? super T> c) {
         assertSupportedOperation();
         Objects.requireNonNull(c);
+        assertWritable();
         if (size == 0) return;
         if (clazz == boolean.class || clazz == Boolean.class) {
             Comparator<Boolean> booleanComparator = (Comparator<Boolean>) c;
             booleanSort(booleanComparator);
         } else {
-            quickSort(0, size - 1, c);
+            introSort(0, size - 1, 2 * (Long.SIZE - Long.numberOfLeadingZeros(size)), c);
         }
+        publishSize();
 
     }
 
     @Override
     public void clear() {
+        assertWritable();
         size = 0;
+        publishSize();
     }
 
     @Override
     public T get(int index) {
+        return getAt(index);
+    }
+
+    public T getAt(long index) {
         checkIndexOutOfBounds(index);
         if(this.isEmpty()){
             throw new NoSuchElementException("ArenaDynArray is empty");
@@ -390,39 +1171,85 @@ public class ArenaDynArray<T> implements List<T> {
 
     @Override
     public T set(int index, T element) {
+        return setAt(index, element);
+    }
+
+    public T setAt(long index, T element) {
+        assertWritable();
         checkIndexOutOfBounds(index);
-        checkSizeAndRealloc();
-        T oldValue = get(index);
+        checkSizeAndRealloc(size);
+        T oldValue = getAt(index);
         setter.accept(element, index);
+        markDirty(index, index + 1);
+        publishSize();
         return oldValue;
     }
 
     @Override
     public void add(int index, T element) {
+        assertWritable();
         checkIndexOutOfBoundsForAdd(index);
+        checkSizeAndRealloc(size + 1);
         size++;
-        checkSizeAndRealloc();
         shiftRightValuesAtIndex(index);
         set(index, element);
     }
 
     @Override
     public T remove(int index) {
+        return removeAt(index);
+    }
+
+    public T removeAt(long index) {
         if(this.isEmpty()){
             throw new NoSuchElementException("ArenaDynArray is empty");
         }
+        assertWritable();
         checkIndexOutOfBounds(index);
-        T oldValue = clazz.cast(get(index));
+        T oldValue = clazz.cast(getAt(index));
         shiftLeftValuesAtIndex(index);
-        set(size - 1, zero);
+        setAt(size - 1, zero);
         size--;
+        publishSize();
         return oldValue;
     }
 
+    // sets every element in [fromIndex, toIndex) to value
+    public void fill(long fromIndex, long toIndex, T value) {
+        Objects.requireNonNull(value);
+        assertWritable();
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex) return;
+        setter.accept(value, fromIndex);
+        // double the filled prefix with bulk copies instead of storing element by element
+        long elementBytes = layout.byteSize();
+        long filled = 1;
+        long count = toIndex - fromIndex;
+        while (filled < count) {
+            long chunk = Math.min(filled, count - filled);
+            MemorySegment.copy(nativeValues, fromIndex * elementBytes, nativeValues, (fromIndex + filled) * elementBytes, chunk * elementBytes);
+            filled += chunk;
+        }
+        markDirty(fromIndex, toIndex);
+        publishSize();
+    }
+
+    // removes the elements in [fromIndex, toIndex), moving the tail down with one bulk copy
+    public void removeRange(long fromIndex, long toIndex) {
+        assertWritable();
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex) return;
+        long elementBytes = layout.byteSize();
+        MemorySegment.copy(nativeValues, toIndex * elementBytes, nativeValues, fromIndex * elementBytes, (size - toIndex) * elementBytes);
+        markDirty(fromIndex, size);
+        size -= toIndex - fromIndex;
+        publishSize();
+    }
+
     @Override
     public int indexOf(Object o) {
         if (o == null) {
-            for (int i = 0; i < size; i++) {
+            for (int i = 0; i < listSize(); i++) {
                 if (get(i) == null) {
                     return i;
                 }
@@ -432,7 +1259,7 @@ public class ArenaDynArray<T> implements List<T> {
             if (!(this.clazz.isAssignableFrom(o.getClass()))) {
                 throw new IllegalArgumentException("Parameter of indexOf(Object) is not of type " + this.clazz);
             }
-            for (int i = 0; i < size; i++) {
+            for (int i = 0; i < listSize(); i++) {
                 if (t.equals(get(i))) {
                     return i;
                 }
@@ -444,7 +1271,7 @@ public class ArenaDynArray<T> implements List<T> {
     @Override
     public int lastIndexOf(Object o) {
         if (o == null) {
-            for (int i = size - 1; i >= 0; i--) {
+            for (int i = listSize() - 1; i >= 0; i--) {
                 if (get(i) == null) {
                     return i;
                 }
@@ -454,7 +1281,7 @@ public class ArenaDynArray<T> implements List<T> {
                 throw new IllegalArgumentException("Parameter of lastIndexOf(Object) is not of type " + this.clazz);
             }
             T t = clazz.cast(o);
-            for (int i = size - 1; i >= 0; i--) {
+            for (int i = listSize() - 1; i >= 0; i--) {
                 if (t.equals(get(i))) {
                     return i;
                 }
@@ -503,7 +1330,7 @@ public class ArenaDynArray<T> implements List<T> {
 
     @Override
     public void addLast(T t) {
-        this.add(size, t);
+        this.add(t);
     }
 
     @Override
@@ -513,7 +1340,7 @@ public class ArenaDynArray<T> implements List<T> {
 
     @Override
     public T getLast() {
-        return this.get(size - 1);
+        return this.getAt(size - 1);
     }
 
     @Override
@@ -523,14 +1350,14 @@ public class ArenaDynArray<T> implements List<T> {
 
     @Override
     public T removeLast() {
-        return this.remove(size - 1);
+        return this.removeAt(size - 1);
     }
 
     @Override
     public List<T> reversed() {
         ArenaDynArray<T> reversedList = new ArenaDynArray<>(clazz, size);
-        for (int i = size - 1; i >= 0; i--) {
-            reversedList.add(get(i));
+        for (long i = size - 1; i >= 0; i--) {
+            reversedList.add(getAt(i));
         }
         return reversedList;
     }
@@ -545,103 +1372,317 @@ public class ArenaDynArray<T> implements List<T> {
         return List.super.parallelStream();
     }
 
-    private void checkSizeAndRealloc() {
-        if (size >= capacity) {
+    // long like longSize(): past Integer.MAX_VALUE elements an int count would overflow
+    public long count(T element) {
+        Objects.requireNonNull(element);
+        if (!clazz.isEnum()) {
+            long count = 0;
+            for (long i = 0; i < size; i++) {
+                if (element.equals(getAt(i))) count++;
+            }
+            return count;
+        }
+        final int ordinal = ((Enum<?>) element).ordinal();
+        long count = 0;
+        for (long i = 0; i < size; i++) {
+            if (ordinalAt(i) == ordinal) count++;
+        }
+        return count;
+    }
+
+    public int[] countByOrdinal() {
+        if (!clazz.isEnum()) {
+            throw new UnsupportedDynArrayTypeException(clazz);
+        }
+        int[] counts = new int[enumConstants.length];
+        for (long i = 0; i < size; i++) {
+            counts[ordinalAt(i)]++;
+        }
+        return counts;
+    }
+
+    public Map<T, Integer> groupCounts() {
+        int[] counts = countByOrdinal();
+        Map<T, Integer> grouped = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            if (counts[ordinal] > 0) {
+                grouped.put(enumConstants[ordinal], counts[ordinal]);
+            }
+        }
+        return grouped;
+    }
+
+    public float getFloat(int index) {
+        if (!isFloatType()) {
+            throw new UnsupportedDynArrayTypeException(clazz);
+        }
+        checkIndexOutOfBounds(index);
+        return switch (floatStorage) {
+            case FLOAT32 -> nativeValues.getAtIndex((ValueLayout.OfFloat) layout, index);
+            case FLOAT16 -> Float.float16ToFloat(nativeValues.getAtIndex((ValueLayout.OfShort) layout, index));
+            case BFLOAT16 -> bfloat16ToFloat(nativeValues.getAtIndex((ValueLayout.OfShort) layout, index));
+        };
+    }
+
+    public void addFloats(float[] values) {
+        Objects.requireNonNull(values);
+        if (!isFloatType()) {
+            throw new UnsupportedDynArrayTypeException(clazz);
+        }
+        assertWritable();
+        if (values.length == 0) return;
+        final long start = size;
+        checkSizeAndRealloc(size + values.length);
+        size += values.length;
+        markDirty(start, size);
+        if (floatStorage == FloatStorage.FLOAT32) {
+            MemorySegment.copy(values, 0, nativeValues, (ValueLayout.OfFloat) layout, start * layout.byteSize(), values.length);
+            publishSize();
+            return;
+        }
+        // convert on the heap in a plain loop the JIT can vectorize, then copy in bulk
+        short[] halves = new short[values.length];
+        if (floatStorage == FloatStorage.FLOAT16) {
+            for (int i = 0; i < values.length; i++) {
+                halves[i] = Float.floatToFloat16(values[i]);
+            }
+        } else {
+            for (int i = 0; i < values.length; i++) {
+                halves[i] = floatToBfloat16(values[i]);
+            }
+        }
+        MemorySegment.copy(halves, 0, nativeValues, (ValueLayout.OfShort) layout, start * layout.byteSize(), halves.length);
+        publishSize();
+    }
+
+    public float[] toFloatArray() {
+        if (!isFloatType()) {
+            throw new UnsupportedDynArrayTypeException(clazz);
+        }
+        float[] result = new float[listSize()];
+        if (floatStorage == FloatStorage.FLOAT32) {
+            MemorySegment.copy(nativeValues, (ValueLayout.OfFloat) layout, 0, result, 0, result.length);
+            return result;
+        }
+        short[] halves = new short[result.length];
+        MemorySegment.copy(nativeValues, (ValueLayout.OfShort) layout, 0, halves, 0, halves.length);
+        if (floatStorage == FloatStorage.FLOAT16) {
+            for (int i = 0; i < halves.length; i++) {
+                result[i] = Float.float16ToFloat(halves[i]);
+            }
+        } else {
+            for (int i = 0; i < halves.length; i++) {
+                result[i] = bfloat16ToFloat(halves[i]);
+            }
+        }
+        return result;
+    }
+
+    private static float bfloat16ToFloat(short bfloat16) {
+        return Float.intBitsToFloat(bfloat16 << 16);
+    }
+
+    private static short floatToBfloat16(float f) {
+        int bits = Float.floatToRawIntBits(f);
+        if (Float.isNaN(f)) {
+            // keep the sign and force a quiet NaN so truncation cannot turn it into infinity
+            return (short) ((bits >>> 16) | 0x0040);
+        }
+        // round to nearest, ties to even
+        return (short) ((bits + 0x7FFF + ((bits >>> 16) & 1)) >>> 16);
+    }
+
+    // grows the capacity for newSize elements before the size is committed, so a failed allocation leaves the array intact
+    private void checkSizeAndRealloc(long newSize) {
+        checkSizeAndRealloc(newSize, 0);
+    }
+
+    // bytes below overwrittenBytes are written by the caller right after growing; allocators that can skip
+    // zeroing them (MALLOC) leave them as they are
+    private void checkSizeAndRealloc(long newSize, long overwrittenBytes) {
+        if (newSize >= capacity) {
             var newCapacity = capacity == 0 ? 1 : capacity * 2;
-            MemorySegment newNativeValues = arena.allocate(layout.byteSize() * newCapacity, layout.byteAlignment());
-            MemorySegment.copy(nativeValues, 0, newNativeValues, 0, nativeValues.byteSize());
-            nativeValues = newNativeValues;
+            if (channel != null) {
+                // the larger mapping already contains the old values
+                remapFile(newCapacity);
+            } else if (allocator != null && nativeValues.isNative()) {
+                // the allocator may grow the block in place instead of copying it, and frees the old one otherwise
+                long newByteSize = layout.byteSize() * newCapacity;
+                nativeValues = budgeted(newByteSize - layout.byteSize() * capacity,
+                        () -> allocator.reallocate(nativeValues, newByteSize, layout.byteAlignment(), overwrittenBytes));
+            } else {
+                long newByteSize = layout.byteSize() * newCapacity;
+                // spilling off the heap: native memory is allocated and accessed with natural alignment again
+                ValueLayout grownLayout = !nativeValues.isNative() && newByteSize > inlineBytes
+                        ? layout.withByteAlignment(layout.byteSize()) : layout;
+                // arena memory of the old values is only freed when the arena closes. Arena.allocate has no
+                // uninitialized variant, so the whole new buffer is zeroed before the copy overwrites half of it
+                MemorySegment newNativeValues = budgeted(newByteSize > inlineBytes ? newByteSize : 0,
+                        () -> allocateSegment(newByteSize, grownLayout.byteAlignment()));
+                MemorySegment.copy(nativeValues, 0, newNativeValues, 0, nativeValues.byteSize());
+                nativeValues = newNativeValues;
+                layout = grownLayout;
+            }
             capacity = newCapacity;
-            checkSizeAndRealloc();
+            if (dirtyPages != null) {
+                dirtyPages = Arrays.copyOf(dirtyPages, dirtyPageWords());
+            }
+            checkSizeAndRealloc(newSize, overwrittenBytes);
         }
     }
 
-    private void shiftLeftValuesAtIndex(int i) {
+    private void shiftLeftValuesAtIndex(long i) {
         if (size - i - 1 > 0) {
             MemorySegment.copy(nativeValues, (i + 1) * layout.byteSize(), nativeValues, i * layout.byteSize(), (size - i - 1) * layout.byteSize());
+            markDirty(i, size);
         }
     }
 
-    private void shiftRightValuesAtIndex(int i) {
+    private void shiftRightValuesAtIndex(long i) {
         if (size - i - 1 > 0) {
             MemorySegment.copy(nativeValues, i * layout.byteSize(), nativeValues, (i + 1) * layout.byteSize(), (size - i - 1) * layout.byteSize());
+            markDirty(i, size);
         }
     }
 
-    private void checkIndexOutOfBounds(int index) {
+    private void checkIndexOutOfBounds(long index) {
         if (index < 0 || index >= size)
             throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for size " + size);
     }
 
-    private void checkIndexOutOfBoundsForAdd(int index) {
+    private void checkIndexOutOfBoundsForAdd(long index) {
         if (index < 0 || index > size)
             throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for size " + size);
     }
 
-    private T getIntAtIndex(int i) {
+    private void checkRange(long fromIndex, long toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+            throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") is out of bounds for size " + size);
+    }
+
+    // int-indexed List operations cannot address arrays past Integer.MAX_VALUE elements
+    private int listSize() {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("ArenaDynArray has " + size + " elements, use the long-indexed methods");
+        }
+        return (int) size;
+    }
+
+    private T getIntAtIndex(long i) {
         return clazz.cast(nativeValues.getAtIndex((ValueLayout.OfInt) layout, i));
     }
 
-    private T getLongAtIndex(int i) {
+    private T getLongAtIndex(long i) {
         return clazz.cast(nativeValues.getAtIndex((ValueLayout.OfLong) layout, i));
     }
 
-    private T getFloatAtIndex(int i) {
+    private T getFloatAtIndex(long i) {
         return clazz.cast(nativeValues.getAtIndex((ValueLayout.OfFloat) layout, i));
     }
 
-    private T getDoubleAtIndex(int i) {
+    private T getFloat16AtIndex(long i) {
+        return clazz.cast(Float.float16ToFloat(nativeValues.getAtIndex((ValueLayout.OfShort) layout, i)));
+    }
+
+    private T getBfloat16AtIndex(long i) {
+        return clazz.cast(bfloat16ToFloat(nativeValues.getAtIndex((ValueLayout.OfShort) layout, i)));
+    }
+
+    private T getDoubleAtIndex(long i) {
         return clazz.cast(nativeValues.getAtIndex((ValueLayout.OfDouble) layout, i));
     }
 
-    private T getCharAtIndex(int i) {
+    private T getCharAtIndex(long i) {
         return clazz.cast(nativeValues.getAtIndex((ValueLayout.OfChar) layout, i));
     }
 
-    private T getBooleanAtIndex(int i) {
+    private T getBooleanAtIndex(long i) {
         return clazz.cast(nativeValues.getAtIndex((ValueLayout.OfBoolean) layout, i));
     }
 
-    private IntFunction<T> getValueReader() {
+    private T getEnumAtIndex(long i) {
+        return enumConstants[ordinalAt(i)];
+    }
+
+    private int ordinalAt(long i) {
+        if (layout instanceof ValueLayout.OfByte byteLayout) {
+            return Byte.toUnsignedInt(nativeValues.getAtIndex(byteLayout, i));
+        }
+        if (layout instanceof ValueLayout.OfShort shortLayout) {
+            return Short.toUnsignedInt(nativeValues.getAtIndex(shortLayout, i));
+        }
+        return nativeValues.getAtIndex((ValueLayout.OfInt) layout, i);
+    }
+
+    private LongFunction<T> getValueReader() {
         assertSupportedOperation();
+        if (clazz.isEnum()) return this::getEnumAtIndex;
         if (clazz == int.class || clazz == Integer.class) return this::getIntAtIndex;
         if (clazz == long.class || clazz == Long.class) return this::getLongAtIndex;
-        if (clazz == float.class || clazz == Float.class) return this::getFloatAtIndex;
+        if (isFloatType()) return switch (floatStorage) {
+            case FLOAT32 -> this::getFloatAtIndex;
+            case FLOAT16 -> this::getFloat16AtIndex;
+            case BFLOAT16 -> this::getBfloat16AtIndex;
+        };
         if (clazz == double.class || clazz == Double.class) return this::getDoubleAtIndex;
         if (clazz == boolean.class || clazz == Boolean.class) return this::getBooleanAtIndex;
         if (clazz == char.class || clazz == Character.class) return this::getCharAtIndex;
         throw new UnsupportedDynArrayTypeException(clazz);
     }
 
-    private void setIntAtIndex(T n, Integer i) {
+    private void setIntAtIndex(T n, long i) {
         nativeValues.setAtIndex((ValueLayout.OfInt) layout, i, (int) n);
     }
 
-    private void setLongAtIndex(T l, Integer i) {
+    private void setLongAtIndex(T l, long i) {
         nativeValues.setAtIndex((ValueLayout.OfLong) layout, i, (long) l);
     }
 
-    private void setFloatAtIndex(T f, Integer i) {
+    private void setFloatAtIndex(T f, long i) {
         nativeValues.setAtIndex((ValueLayout.OfFloat) layout, i, (float) f);
     }
 
-    private void setDoubleAtIndex(T d, Integer i) {
+    private void setFloat16AtIndex(T f, long i) {
+        nativeValues.setAtIndex((ValueLayout.OfShort) layout, i, Float.floatToFloat16((float) f));
+    }
+
+    private void setBfloat16AtIndex(T f, long i) {
+        nativeValues.setAtIndex((ValueLayout.OfShort) layout, i, floatToBfloat16((float) f));
+    }
+
+    private void setDoubleAtIndex(T d, long i) {
         nativeValues.setAtIndex((ValueLayout.OfDouble) layout, i, (double) d);
     }
 
-    private void setBooleanAtIndex(T b, Integer i) {
+    private void setBooleanAtIndex(T b, long i) {
         nativeValues.setAtIndex((ValueLayout.OfBoolean) layout, i, (boolean) b);
     }
 
-    private void setCharAtIndex(T c, Integer i) {
+    private void setCharAtIndex(T c, long i) {
         nativeValues.setAtIndex((ValueLayout.OfChar) layout, i, (char) c);
     }
 
-    private BiConsumer<T, Integer> getValueSetter() {
+    private void setEnumAtIndex(T e, long i) {
+        int ordinal = ((Enum<?>) e).ordinal();
+        if (layout instanceof ValueLayout.OfByte byteLayout) {
+            nativeValues.setAtIndex(byteLayout, i, (byte) ordinal);
+        } else if (layout instanceof ValueLayout.OfShort shortLayout) {
+            nativeValues.setAtIndex(shortLayout, i, (short) ordinal);
+        } else {
+            nativeValues.setAtIndex((ValueLayout.OfInt) layout, i, ordinal);
+        }
+    }
+
+    private ObjLongConsumer<T> getValueSetter() {
         assertSupportedOperation();
+        if (clazz.isEnum()) return this::setEnumAtIndex;
         if (clazz == int.class || clazz == Integer.class) return this::setIntAtIndex;
         if (clazz == long.class || clazz == Long.class) return this::setLongAtIndex;
-        if (clazz == float.class || clazz == Float.class) return this::setFloatAtIndex;
+        if (isFloatType()) return switch (floatStorage) {
+            case FLOAT32 -> this::setFloatAtIndex;
+            case FLOAT16 -> this::setFloat16AtIndex;
+            case BFLOAT16 -> this::setBfloat16AtIndex;
+        };
         if (clazz == double.class || clazz == Double.class) return this::setDoubleAtIndex;
         if (clazz == boolean.class || clazz == Boolean.class) return this::setBooleanAtIndex;
         if (clazz == char.class || clazz == Character.class) return this::setCharAtIndex;
@@ -652,38 +1693,230 @@ public class ArenaDynArray<T> implements List<T> {
     public enum MemoryManagerType {
         SHARED,
         CONFINED,
-        GLOBAL
-    }
+        GLOBAL,
+        // 2MB aligned anonymous mappings advised for transparent huge pages on Linux, freed on close()
+        HUGE_PAGES,
+        // libc malloc/realloc/free, so the C library can grow large blocks in place; freed on close(). The only
+        // manager whose growth skips zeroing the copied and overwritten bytes
+        MALLOC
+    }
+
+    public enum FloatStorage {
+        FLOAT32,
+        FLOAT16,
+        BFLOAT16
+    }
+
+    // owns one arena for a group of short lived arrays, e.g. the scratch arrays of a request: memory is bump
+    // allocated from chunks, reset() releases every array at once and keeps the chunks for the next group.
+    // the scope is thread safe, so arrays of a SHARED scope may grow from different threads
+    public static final class Scope implements AutoCloseable {
+
+        public static final long DEFAULT_CHUNK_BYTES = 1L << 20;
+
+        private final Arena arena;
+        private final long chunkBytes;
+        private final List<MemorySegment> chunks = new ArrayList<>();
+        private final List<ArenaDynArray<?>> arrays = new ArrayList<>();
+        // arrays allocate through this private view, so the bump allocator is not part of the public API
+        private final NativeAllocator allocator = new NativeAllocator() {
+            @Override
+            public MemorySegment allocate(long byteSize, long byteAlignment) {
+                return Scope.this.allocate(byteSize, byteAlignment);
+            }
 
-    private int partition(int low, int high, Comparator<? super T> c) {
+            @Override
+            public boolean chargesBudget() {
+                return true;
+            }
+        };
+        private int chunk;
+        private long offset;
 
-        T pivot = get(high);
-        int i = low - 1;
+        public Scope() {
+            this(MemoryManagerType.SHARED, DEFAULT_CHUNK_BYTES);
+        }
 
-        for (int j = low; j <= high - 1; j++) {
-            if (c.compare(get(j), pivot) < 0) {
-                i++;
-                swap(i, j);
+        public Scope(MemoryManagerType memoryManager, long chunkBytes) {
+            if (memoryManager == MemoryManagerType.GLOBAL) {
+                throw new IllegalArgumentException("A scope cannot release memory of the global arena");
+            }
+            if (chunkBytes <= 0) {
+                throw new IllegalArgumentException("Chunk size must be positive");
+            }
+            this.arena = initializeArena(memoryManager);
+            this.chunkBytes = chunkBytes;
+        }
+
+        public <T> ArenaDynArray<T> newArray(Class<T> clazz) {
+            return newArray(clazz, DEFAULT_START_CAPACITY);
+        }
+
+        public <T> ArenaDynArray<T> newArray(Class<T> clazz, long startCapacity) {
+            ArenaDynArray<T> array = new ArenaDynArray<>(clazz, startCapacity, this);
+            synchronized (this) {
+                arrays.add(array);
+            }
+            return array;
+        }
+
+        private synchronized MemorySegment allocate(long byteSize, long byteAlignment) {
+            while (chunk < chunks.size()) {
+                MemorySegment current = chunks.get(chunk);
+                long start = (current.address() + offset + byteAlignment - 1) / byteAlignment * byteAlignment - current.address();
+                if (start + byteSize <= current.byteSize()) {
+                    offset = start + byteSize;
+                    return current.asSlice(start, byteSize);
+                }
+                chunk++;
+                offset = 0;
+            }
+            long freshBytes = Math.max(chunkBytes, byteSize);
+            // chunks are charged to the budget as a whole until the scope closes, however arrays use them
+            ArenaMemoryBudget.global().reserve(Scope.class.getSimpleName(), freshBytes);
+            MemorySegment fresh;
+            try {
+                fresh = arena.allocate(freshBytes, Math.max(byteAlignment, Long.BYTES));
+            } catch (RuntimeException | Error e) {
+                ArenaMemoryBudget.global().release(Scope.class.getSimpleName(), freshBytes);
+                throw e;
+            }
+            chunks.add(fresh);
+            chunk = chunks.size() - 1;
+            offset = byteSize;
+            return fresh.asSlice(0, byteSize);
+        }
+
+        public synchronized long usedBytes() {
+            long used = offset;
+            for (int i = 0; i < chunk && i < chunks.size(); i++) {
+                used += chunks.get(i).byteSize();
+            }
+            return used;
+        }
+
+        public synchronized long reservedBytes() {
+            long reserved = 0;
+            for (MemorySegment current : chunks) {
+                reserved += current.byteSize();
             }
+            return reserved;
         }
 
-        swap(i + 1, high);
-        return i + 1;
+        // releases every array of the scope and rewinds the bump pointer; used chunks are zeroed like fresh arena memory
+        public synchronized void reset() {
+            for (ArenaDynArray<?> array : arrays) {
+                array.close();
+            }
+            arrays.clear();
+            for (int i = 0; i <= chunk && i < chunks.size(); i++) {
+                chunks.get(i).asSlice(0, i < chunk ? chunks.get(i).byteSize() : offset).fill((byte) 0);
+            }
+            chunk = 0;
+            offset = 0;
+        }
+
+        @Override
+        public synchronized void close() {
+            for (ArenaDynArray<?> array : arrays) {
+                array.close();
+            }
+            arrays.clear();
+            arena.close();
+            ArenaMemoryBudget.global().release(Scope.class.getSimpleName(), reservedBytes());
+            chunks.clear();
+        }
     }
 
-    private void swap(int i, int j) {
-        T temp = this.get(i);
-        this.set(i, this.get(j));
-        this.set(j, temp);
+    private void swap(long i, long j) {
+        T temp = this.getAt(i);
+        this.setAt(i, this.getAt(j));
+        this.setAt(j, temp);
     }
 
-    private void quickSort(int low, int high, Comparator<? super T> c) {
-        if (low < high) {
+    // introsort: median of three pivots, a three way partition so runs of equal keys are settled in one pass,
+    // recursion only into the smaller side and heapsort past the depth limit, so sorted, reversed or repetitive
+    // input stays O(n log n) with O(log n) stack
+    private void introSort(long low, long high, int depthLimit, Comparator<? super T> c) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                heapSort(low, high, c);
+                return;
+            }
+            T pivot = medianOfThree(low, low + (high - low) / 2, high, c);
+            // [low, lt) < pivot, [lt, i) == pivot, (gt, high] > pivot
+            long lt = low;
+            long i = low;
+            long gt = high;
+            while (i <= gt) {
+                int cmp = c.compare(getAt(i), pivot);
+                if (cmp < 0) {
+                    swap(lt++, i++);
+                } else if (cmp > 0) {
+                    swap(i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (lt - low < high - gt) {
+                introSort(low, lt - 1, depthLimit, c);
+                low = gt + 1;
+            } else {
+                introSort(gt + 1, high, depthLimit, c);
+                high = lt - 1;
+            }
+        }
+        insertionSort(low, high, c);
+    }
 
-            int pi = partition(low, high, c);
+    private T medianOfThree(long first, long middle, long last, Comparator<? super T> c) {
+        T x = getAt(first);
+        T y = getAt(middle);
+        T z = getAt(last);
+        if (c.compare(x, y) > 0) {
+            T t = x;
+            x = y;
+            y = t;
+        }
+        if (c.compare(y, z) > 0) {
+            y = c.compare(x, z) > 0 ? x : z;
+        }
+        return y;
+    }
 
-            quickSort(low, pi - 1, c);
-            quickSort(pi + 1, high, c);
+    private void insertionSort(long low, long high, Comparator<? super T> c) {
+        for (long i = low + 1; i <= high; i++) {
+            T value = getAt(i);
+            long j = i - 1;
+            while (j >= low && c.compare(getAt(j), value) > 0) {
+                setAt(j + 1, getAt(j));
+                j--;
+            }
+            setAt(j + 1, value);
+        }
+    }
+
+    private void heapSort(long low, long high, Comparator<? super T> c) {
+        long count = high - low + 1;
+        for (long i = count / 2 - 1; i >= 0; i--) {
+            siftDown(low, i, count, c);
+        }
+        for (long end = count - 1; end > 0; end--) {
+            swap(low, low + end);
+            siftDown(low, 0, end, c);
+        }
+    }
+
+    private void siftDown(long base, long i, long count, Comparator<? super T> c) {
+        while (true) {
+            long child = 2 * i + 1;
+            if (child >= count) return;
+            if (child + 1 < count && c.compare(getAt(base + child + 1), getAt(base + child)) > 0) {
+                child++;
+            }
+            if (c.compare(getAt(base + i), getAt(base + child)) >= 0) return;
+            swap(base + i, base + child);
+            i = child;
         }
     }
 
@@ -691,8 +1924,8 @@ public class ArenaDynArray<T> implements List<T> {
         final boolean leftValue = c.compare(false, true) > 0;
         final boolean rightValue = !leftValue;
 
-        int i = 0;
-        int j = size - 1;
+        long i = 0;
+        long j = size - 1;
         while (i < j) {
             while (i < j && nativeValues.getAtIndex((ValueLayout.OfBoolean) layout, i) == leftValue) {
                 i++;
@@ -704,6 +1937,8 @@ public class ArenaDynArray<T> implements List<T> {
             if (i < j) {
                 nativeValues.setAtIndex((ValueLayout.OfBoolean) layout, i, leftValue);
                 nativeValues.setAtIndex((ValueLayout.OfBoolean) layout, j, rightValue);
+                markDirty(i, i + 1);
+                markDirty(j, j + 1);
                 i++;
                 j--;
             }
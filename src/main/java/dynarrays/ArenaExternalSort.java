@@ -0,0 +1,145 @@
+package dynarrays;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+// sorts arrays that do not fit the memory budget: sorted runs are spilled to temp files and k-way merged
+public class ArenaExternalSort {
+
+    public static final long DEFAULT_MEMORY_BUDGET_BYTES = 256L << 20;
+
+    private final long memoryBudgetBytes;
+    private final Path tempDirectory;
+
+    public ArenaExternalSort() {
+        this(DEFAULT_MEMORY_BUDGET_BYTES, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    public ArenaExternalSort(long memoryBudgetBytes, Path tempDirectory) {
+        if (memoryBudgetBytes <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.tempDirectory = Objects.requireNonNull(tempDirectory);
+    }
+
+    public <T> ArenaDynArray<T> sort(ArenaDynArray<T> source, Comparator<? super T> c) {
+        ArenaDynArray<T> target = new ArenaDynArray<>(source.elementClass(), ArenaDynArray.capacityFor(source.longSize()),
+                ArenaDynArray.MemoryManagerType.SHARED, source.floatStorage(), source.byteOrder());
+        sortInto(source, c, target);
+        return target;
+    }
+
+    // the result is written to a mapped array in output, so it never has to be resident either
+    public <T> ArenaDynArray<T> sortToFile(ArenaDynArray<T> source, Comparator<? super T> c, Path output) {
+        ArenaDynArray<T> target = ArenaDynArray.mapped(source.elementClass(), output, ArenaDynArray.capacityFor(source.longSize()));
+        try {
+            target.clear();
+            sortInto(source, c, target);
+            target.force();
+        } catch (RuntimeException e) {
+            target.close();
+            throw e;
+        }
+        return target;
+    }
+
+    // appends the elements of source to target in the order of c
+    public <T> void sortInto(ArenaDynArray<T> source, Comparator<? super T> c, ArenaDynArray<T> target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(c);
+        Objects.requireNonNull(target);
+        long runElements = memoryBudgetBytes / source.elementByteSize();
+        if (runElements == 0) {
+            throw new IllegalArgumentException("Memory budget must hold at least one element");
+        }
+        if (source.isEmpty()) return;
+        long size = source.longSize();
+
+        List<Path> runFiles = new ArrayList<>();
+        List<FileChannel> runChannels = new ArrayList<>();
+        List<ArenaDynArray<T>> runs = new ArrayList<>();
+        try {
+            // one scratch segment of the budget's size is reused for every run; sized so filling it never grows it
+            try (ArenaDynArray<T> scratch = new ArenaDynArray<>(source.elementClass(),
+                    ArenaDynArray.capacityFor(Math.min(runElements, size)),
+                    ArenaDynArray.MemoryManagerType.CONFINED, source.floatStorage(), source.byteOrder())) {
+                if (size <= runElements) {
+                    scratch.appendRaw(source.rawSlice(0, size));
+                    scratch.sort(c);
+                    for (long i = 0; i < size; i++) {
+                        target.add(scratch.getAt(i));
+                    }
+                    return;
+                }
+                for (long from = 0; from < size; from += runElements) {
+                    long to = Math.min(size, from + runElements);
+                    scratch.clear();
+                    scratch.appendRaw(source.rawSlice(from, to));
+                    scratch.sort(c);
+
+                    Path runFile = Files.createTempFile(tempDirectory, "arena-sort-", ".run");
+                    runFiles.add(runFile);
+                    FileChannel channel = FileChannel.open(runFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    runChannels.add(channel);
+                    ByteBuffer bytes = scratch.rawSlice(0, scratch.longSize()).asByteBuffer();
+                    long position = 0;
+                    while (bytes.hasRemaining()) {
+                        position += channel.write(bytes, position);
+                    }
+                    runs.add(ArenaDynArray.mapReadOnly(source.elementClass(), source.floatStorage(), source.byteOrder(),
+                            channel, 0, scratch.longSize()));
+                }
+            }
+            merge(runs, c, target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (ArenaDynArray<T> run : runs) {
+                run.close();
+            }
+            for (FileChannel channel : runChannels) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+            for (Path runFile : runFiles) {
+                try {
+                    Files.deleteIfExists(runFile);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static <T> void merge(List<ArenaDynArray<T>> runs, Comparator<? super T> c, ArenaDynArray<T> target) {
+        // heap of run cursors ordered by their current element, ties going to the earlier run
+        // a cursor is {run, index}
+        PriorityQueue<long[]> heap = new PriorityQueue<>(runs.size(), (a, b) -> {
+            int order = c.compare(runs.get((int) a[0]).getAt(a[1]), runs.get((int) b[0]).getAt(b[1]));
+            return order != 0 ? order : Long.compare(a[0], b[0]);
+        });
+        for (int run = 0; run < runs.size(); run++) {
+            heap.add(new long[]{run, 0});
+        }
+        while (!heap.isEmpty()) {
+            long[] cursor = heap.poll();
+            ArenaDynArray<T> run = runs.get((int) cursor[0]);
+            target.add(run.getAt(cursor[1]));
+            if (++cursor[1] < run.longSize()) {
+                heap.add(cursor);
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package dynarrays;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.foreign.MemorySegment;
+import java.lang.ref.Cleaner;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.function.LongConsumer;
+
+// process wide accounting of the native memory held by ArenaDynArray instances and the pools, scopes and caller
+// arenas they allocate from, with an optional limit; heap (hybrid inline) storage and mapped files are not counted
+public final class ArenaMemoryBudget implements ArenaMemoryBudgetMXBean {
+
+    public static final String OBJECT_NAME = "dynarrays:type=ArenaMemoryBudget";
+    public static final long DEFAULT_BLOCK_TIMEOUT_MILLIS = 30_000;
+
+    private static final long SWEEP_INTERVAL_MILLIS = 100;
+
+    private static final ArenaMemoryBudget GLOBAL = new ArenaMemoryBudget();
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    public enum Policy {
+        // throw MemoryBudgetExceededException
+        FAIL,
+        // wait for other arrays to be closed, up to the block timeout, then fail
+        BLOCK,
+        // ask the spill handler to release the excess, then fail if it did not
+        SPILL
+    }
+
+    private final Map<String, Long> liveBytesByType = new HashMap<>();
+    // bytes an arena holds until it closes, released by the next sweep after it is closed; the keys are weak so an
+    // automatic arena is not kept reachable, and so alive, by its charge, which a cleaner releases once it is collected
+    private final Map<MemorySegment.Scope, Map<String, Long>> bytesByScope = new WeakHashMap<>();
+    private long liveBytes;
+    private long peakBytes;
+    private long rejectedCount;
+    private long limitBytes = Long.MAX_VALUE;
+    private Policy policy = Policy.FAIL;
+    private long blockTimeoutMillis = DEFAULT_BLOCK_TIMEOUT_MILLIS;
+    private LongConsumer spillHandler = excess -> {};
+
+    public ArenaMemoryBudget() {
+    }
+
+    public static ArenaMemoryBudget global() {
+        return GLOBAL;
+    }
+
+    public ObjectName registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            }
+            return name;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    @Override
+    public synchronized long getLiveBytes() {
+        sweep();
+        return liveBytes;
+    }
+
+    @Override
+    public synchronized long getPeakBytes() {
+        return peakBytes;
+    }
+
+    @Override
+    public synchronized Map<String, Long> getLiveBytesByType() {
+        sweep();
+        return new TreeMap<>(liveBytesByType);
+    }
+
+    @Override
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    @Override
+    public synchronized long getLimitBytes() {
+        return limitBytes;
+    }
+
+    // Long.MAX_VALUE disables the limit; lowering it below the live bytes only affects later allocations
+    @Override
+    public synchronized void setLimitBytes(long limitBytes) {
+        if (limitBytes < 0) {
+            throw new IllegalArgumentException("Limit must be non negative");
+        }
+        this.limitBytes = limitBytes;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized Policy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public synchronized void setPolicy(Policy policy) {
+        this.policy = Objects.requireNonNull(policy);
+    }
+
+    @Override
+    public synchronized long getBlockTimeoutMillis() {
+        return blockTimeoutMillis;
+    }
+
+    @Override
+    public synchronized void setBlockTimeoutMillis(long blockTimeoutMillis) {
+        if (blockTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Timeout must be non negative");
+        }
+        this.blockTimeoutMillis = blockTimeoutMillis;
+    }
+
+    // called with the number of bytes over the limit; it runs on the allocating thread and should close or
+    // spill arrays without allocating native memory itself
+    public synchronized void setSpillHandler(LongConsumer spillHandler) {
+        this.spillHandler = Objects.requireNonNull(spillHandler);
+    }
+
+    @Override
+    public synchronized void resetPeak() {
+        peakBytes = liveBytes;
+    }
+
+    // accounts byteSize bytes for type before they are allocated, applying the policy if they exceed the limit
+    void reserve(String type, long byteSize) {
+        if (byteSize <= 0) return;
+        LongConsumer handler;
+        synchronized (this) {
+            if (tryReserve(type, byteSize)) return;
+            if (policy == Policy.FAIL) {
+                throw rejected(type, byteSize);
+            }
+            if (policy == Policy.BLOCK) {
+                awaitRelease(type, byteSize);
+                return;
+            }
+            handler = spillHandler;
+        }
+        // outside the lock, so the handler can close arrays and release their bytes
+        handler.accept(excess(byteSize));
+        synchronized (this) {
+            if (!tryReserve(type, byteSize)) {
+                throw rejected(type, byteSize);
+            }
+        }
+    }
+
+    // hands reserved bytes over to the arena holding them: they stay live until that arena is closed
+    synchronized void releaseWhenClosed(String type, long byteSize, MemorySegment.Scope scope) {
+        if (byteSize <= 0) return;
+        Map<String, Long> held = bytesByScope.get(scope);
+        if (held == null) {
+            held = new HashMap<>();
+            bytesByScope.put(scope, held);
+            Map<String, Long> charge = held;
+            // the action must not capture the scope, or the scope would never become unreachable
+            CLEANER.register(scope, () -> releaseAll(charge));
+        }
+        held.merge(type, byteSize, Long::sum);
+    }
+
+    synchronized void release(String type, long byteSize) {
+        if (byteSize <= 0) return;
+        liveBytes -= byteSize;
+        liveBytesByType.merge(type, -byteSize, (current, delta) -> current + delta == 0 ? null : current + delta);
+        notifyAll();
+    }
+
+    private void sweep() {
+        for (Iterator<Map.Entry<MemorySegment.Scope, Map<String, Long>>> it = bytesByScope.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<MemorySegment.Scope, Map<String, Long>> entry = it.next();
+            if (!entry.getKey().isAlive()) {
+                it.remove();
+                releaseAll(entry.getValue());
+            }
+        }
+    }
+
+    // idempotent, as a closed scope is released by a sweep and again by the cleaner once it is collected
+    private synchronized void releaseAll(Map<String, Long> held) {
+        held.forEach(this::release);
+        held.clear();
+    }
+
+    private boolean tryReserve(String type, long byteSize) {
+        sweep();
+        if (byteSize > limitBytes - liveBytes) return false;
+        liveBytes += byteSize;
+        peakBytes = Math.max(peakBytes, liveBytes);
+        liveBytesByType.merge(type, byteSize, Long::sum);
+        return true;
+    }
+
+    private void awaitRelease(String type, long byteSize) {
+        long deadline = System.nanoTime() + blockTimeoutMillis * 1_000_000;
+        while (!tryReserve(type, byteSize)) {
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMillis <= 0) {
+                throw rejected(type, byteSize);
+            }
+            try {
+                // closed arenas do not notify, so the wait is sliced to sweep them now and then
+                wait(Math.min(remainingMillis, SWEEP_INTERVAL_MILLIS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw rejected(type, byteSize);
+            }
+        }
+    }
+
+    private synchronized long excess(long byteSize) {
+        sweep();
+        return Math.max(0, liveBytes + byteSize - limitBytes);
+    }
+
+    private MemoryBudgetExceededException rejected(String type, long byteSize) {
+        rejectedCount++;
+        return new MemoryBudgetExceededException(type, byteSize, liveBytes, limitBytes);
+    }
+}
@@ -0,0 +1,28 @@
+package dynarrays;
+
+import java.util.Map;
+
+public interface ArenaMemoryBudgetMXBean {
+
+    long getLiveBytes();
+
+    long getPeakBytes();
+
+    Map<String, Long> getLiveBytesByType();
+
+    long getRejectedCount();
+
+    long getLimitBytes();
+
+    void setLimitBytes(long limitBytes);
+
+    ArenaMemoryBudget.Policy getPolicy();
+
+    void setPolicy(ArenaMemoryBudget.Policy policy);
+
+    long getBlockTimeoutMillis();
+
+    void setBlockTimeoutMillis(long blockTimeoutMillis);
+
+    void resetPeak();
+}
@@ -0,0 +1,238 @@
+package dynarrays;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// array larger than RAM: every page lives in a spill file, a bounded set of hot pages is cached in arena memory
+public class ArenaPagedArray<T> implements AutoCloseable {
+
+    public static final int DEFAULT_PAGE_ELEMENTS = 1 << 16;
+    public static final int DEFAULT_CACHED_PAGES = 256;
+
+    private final Class<T> clazz;
+    private final FileChannel spill;
+    private final int pageElements;
+    private final long pageBytes;
+    // each cache frame is a full page sized ArenaDynArray, so element access matches ArenaDynArray exactly
+    private final ArenaDynArray<T>[] frames;
+    private final long[] framePages;
+    private final boolean[] dirty;
+    private final boolean[] referenced;
+    private final Map<Long, Integer> frameByPage = new HashMap<>();
+    private int loadedFrames;
+    private int clockHand;
+    private long lastPage = -1;
+    private int lastFrame;
+    private long size;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long writeBacks;
+
+    public ArenaPagedArray(Class<T> clazz, Path spillFile) {
+        this(clazz, spillFile, DEFAULT_PAGE_ELEMENTS, DEFAULT_CACHED_PAGES);
+    }
+
+    // the spill file is scratch space: it is truncated on open and deleted on close
+    @SuppressWarnings("unchecked")
+    public ArenaPagedArray(Class<T> clazz, Path spillFile, int pageElements, int cachedPages) {
+        Objects.requireNonNull(clazz);
+        Objects.requireNonNull(spillFile);
+        if (pageElements < 1 || cachedPages < 1) {
+            throw new IllegalArgumentException("Page size and cached page count must be positive");
+        }
+        this.clazz = clazz;
+        this.pageElements = pageElements;
+        this.frames = (ArenaDynArray<T>[]) new ArenaDynArray<?>[cachedPages];
+        this.framePages = new long[cachedPages];
+        this.dirty = new boolean[cachedPages];
+        this.referenced = new boolean[cachedPages];
+        Arrays.fill(framePages, -1);
+
+        ArenaDynArray<T> first = new ArenaDynArray<>(clazz, ArenaDynArray.capacityFor(pageElements));
+        this.pageBytes = pageElements * first.elementByteSize();
+        first.reserveRaw(pageElements);
+        frames[0] = first;
+        try {
+            this.spill = FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            first.close();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public T get(long index) {
+        checkIndexOutOfBounds(index);
+        return frames[frameFor(index / pageElements)].get((int) (index % pageElements));
+    }
+
+    public T set(long index, T element) {
+        Objects.requireNonNull(element);
+        checkIndexOutOfBounds(index);
+        int frame = frameFor(index / pageElements);
+        dirty[frame] = true;
+        return frames[frame].set((int) (index % pageElements), element);
+    }
+
+    public boolean add(T element) {
+        Objects.requireNonNull(element);
+        size++;
+        set(size - 1, element);
+        return true;
+    }
+
+    public long hitCount() {
+        return hits;
+    }
+
+    public long missCount() {
+        return misses;
+    }
+
+    public long evictionCount() {
+        return evictions;
+    }
+
+    public long writeBackCount() {
+        return writeBacks;
+    }
+
+    public int cachedPageCount() {
+        return loadedFrames;
+    }
+
+    public void resetCounters() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        writeBacks = 0;
+    }
+
+    // writes every dirty cached page back to the spill file without evicting it
+    public void flush() {
+        for (int frame = 0; frame < loadedFrames; frame++) {
+            if (dirty[frame]) {
+                writeBack(frame);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ArenaDynArray<T> frame : frames) {
+            if (frame != null) {
+                frame.close();
+            }
+        }
+        try {
+            spill.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int frameFor(long page) {
+        // sequential scans stay on one page, so skip the map lookup for it
+        if (page == lastPage) {
+            hits++;
+            referenced[lastFrame] = true;
+            return lastFrame;
+        }
+        Integer cached = frameByPage.get(page);
+        int frame;
+        if (cached != null) {
+            hits++;
+            frame = cached;
+        } else {
+            misses++;
+            frame = victim();
+            if (framePages[frame] >= 0) {
+                if (dirty[frame]) {
+                    writeBack(frame);
+                }
+                frameByPage.remove(framePages[frame]);
+                evictions++;
+            }
+            load(frame, page);
+            frameByPage.put(page, frame);
+        }
+        referenced[frame] = true;
+        lastPage = page;
+        lastFrame = frame;
+        return frame;
+    }
+
+    // CLOCK: sweep past recently referenced frames, clearing their bit, and evict the first one not referenced
+    private int victim() {
+        if (loadedFrames < frames.length) {
+            int frame = loadedFrames++;
+            if (frames[frame] == null) {
+                frames[frame] = new ArenaDynArray<>(clazz, ArenaDynArray.capacityFor(pageElements));
+                frames[frame].reserveRaw(pageElements);
+            }
+            return frame;
+        }
+        while (referenced[clockHand]) {
+            referenced[clockHand] = false;
+            clockHand = (clockHand + 1) % frames.length;
+        }
+        int frame = clockHand;
+        clockHand = (clockHand + 1) % frames.length;
+        return frame;
+    }
+
+    private void load(int frame, long page) {
+        MemorySegment bytes = frames[frame].rawSlice(0, pageElements);
+        // pages never written, or past the end of the file, read as zero
+        bytes.fill((byte) 0);
+        ByteBuffer buffer = bytes.asByteBuffer();
+        long position = page * pageBytes;
+        try {
+            while (buffer.hasRemaining()) {
+                int read = spill.read(buffer, position + buffer.position());
+                if (read < 0) break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        framePages[frame] = page;
+        dirty[frame] = false;
+    }
+
+    private void writeBack(int frame) {
+        ByteBuffer buffer = frames[frame].rawSlice(0, pageElements).asByteBuffer();
+        long position = framePages[frame] * pageBytes;
+        try {
+            while (buffer.hasRemaining()) {
+                spill.write(buffer, position + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        dirty[frame] = false;
+        writeBacks++;
+    }
+
+    private void checkIndexOutOfBounds(long index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for size " + size);
+    }
+}
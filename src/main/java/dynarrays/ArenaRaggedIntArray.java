@@ -0,0 +1,121 @@
+package dynarrays;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+
+public class ArenaRaggedIntArray implements AutoCloseable {
+
+    private static final short DEFAULT_START_CAPACITY = 8;
+    private static final ValueLayout.OfLong OFFSET_LAYOUT = ValueLayout.JAVA_LONG;
+    private static final ValueLayout.OfInt VALUE_LAYOUT = ValueLayout.JAVA_INT;
+
+    private final BudgetedArena arena;
+    // offsets[i] is the first value of row i, offsets[size] is the end of the last row
+    private MemorySegment offsets;
+    private MemorySegment values;
+    private long offsetCapacity;
+    private long valueCapacity;
+    private int size = 0;
+
+    public ArenaRaggedIntArray() {
+        this(DEFAULT_START_CAPACITY, DEFAULT_START_CAPACITY);
+    }
+
+    public ArenaRaggedIntArray(long startRows, long startValues) {
+        this(startRows, startValues, ArenaDynArray.MemoryManagerType.SHARED);
+    }
+
+    public ArenaRaggedIntArray(long startRows, long startValues, ArenaDynArray.MemoryManagerType memoryManager) {
+        if (startRows < 0 || startValues < 0) {
+            throw new IllegalArgumentException("Start length must be non negative");
+        }
+        this.arena = new BudgetedArena(memoryManager, ArenaRaggedIntArray.class.getSimpleName());
+        this.offsetCapacity = startRows + 1;
+        this.valueCapacity = startValues;
+        this.offsets = arena.allocate(OFFSET_LAYOUT.byteSize() * offsetCapacity, OFFSET_LAYOUT.byteAlignment());
+        this.values = arena.allocate(VALUE_LAYOUT.byteSize() * valueCapacity, VALUE_LAYOUT.byteAlignment());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long totalLength() {
+        return offsetAt(size);
+    }
+
+    public void append(int[] row) {
+        Objects.requireNonNull(row);
+        long start = offsetAt(size);
+        long end = start + row.length;
+        checkSizeAndRealloc(end);
+        MemorySegment.copy(row, 0, values, VALUE_LAYOUT, start * VALUE_LAYOUT.byteSize(), row.length);
+        size++;
+        offsets.setAtIndex(OFFSET_LAYOUT, size, end);
+    }
+
+    public int lengthAt(int index) {
+        checkIndexOutOfBounds(index);
+        return (int) (offsetAt(index + 1) - offsetAt(index));
+    }
+
+    public int get(int index, int position) {
+        int length = lengthAt(index);
+        if (position < 0 || position >= length)
+            throw new IndexOutOfBoundsException("Position " + position + " is out of bounds for length " + length);
+        return values.getAtIndex(VALUE_LAYOUT, offsetAt(index) + position);
+    }
+
+    // zero-copy view over the row. growth copies the values to a new segment and the arena keeps the old one, so a
+    // view taken before growth stays readable but detached: rows written over it after clear() do not show through
+    // it. close() invalidates every view
+    public MemorySegment sliceAt(int index) {
+        checkIndexOutOfBounds(index);
+        long start = offsetAt(index);
+        return values.asSlice(start * VALUE_LAYOUT.byteSize(), (offsetAt(index + 1) - start) * VALUE_LAYOUT.byteSize());
+    }
+
+    public int[] toArray(int index) {
+        return sliceAt(index).toArray(VALUE_LAYOUT);
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    private long offsetAt(int index) {
+        return offsets.getAtIndex(OFFSET_LAYOUT, index);
+    }
+
+    private void checkSizeAndRealloc(long requiredValues) {
+        if (size + 2 > offsetCapacity) {
+            long newCapacity = offsetCapacity * 2;
+            MemorySegment newOffsets = arena.allocate(OFFSET_LAYOUT.byteSize() * newCapacity, OFFSET_LAYOUT.byteAlignment());
+            MemorySegment.copy(offsets, 0, newOffsets, 0, offsets.byteSize());
+            offsets = newOffsets;
+            offsetCapacity = newCapacity;
+        }
+        if (requiredValues > valueCapacity) {
+            long newCapacity = Math.max(valueCapacity == 0 ? 1 : valueCapacity * 2, requiredValues);
+            MemorySegment newValues = arena.allocate(VALUE_LAYOUT.byteSize() * newCapacity, VALUE_LAYOUT.byteAlignment());
+            MemorySegment.copy(values, 0, newValues, 0, values.byteSize());
+            values = newValues;
+            valueCapacity = newCapacity;
+        }
+    }
+
+    private void checkIndexOutOfBounds(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for size " + size);
+    }
+}
@@ -0,0 +1,164 @@
+package dynarrays;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// pooled allocator for many small arrays: power of two size classes carved from large slabs of one shared arena,
+// so constructing, growing and closing a small array costs a bump or a free-list pop instead of an arena
+public class ArenaSlabPool implements NativeAllocator, AutoCloseable {
+
+    public static final long DEFAULT_SLAB_BYTES = 1L << 20;
+    public static final long DEFAULT_MAX_POOLED_BYTES = 1L << 16;
+
+    private static final long MIN_BLOCK_BYTES = 64;
+    private static final String BUDGET_TYPE = ArenaSlabPool.class.getSimpleName();
+
+    private final Arena arena = Arena.ofShared();
+    private final long slabBytes;
+    private final long maxPooledBytes;
+    private final SizeClass[] sizeClasses;
+    // blocks too large to pool, by address: each has its own arena, closed and uncharged when the block is freed
+    private final Map<Long, OversizedBlock> oversized = new ConcurrentHashMap<>();
+
+    private record OversizedBlock(Arena arena, long byteSize) {
+
+        void release() {
+            arena.close();
+            ArenaMemoryBudget.global().release(BUDGET_TYPE, byteSize);
+        }
+    }
+
+    public ArenaSlabPool() {
+        this(DEFAULT_SLAB_BYTES, DEFAULT_MAX_POOLED_BYTES);
+    }
+
+    public ArenaSlabPool(long slabBytes, long maxPooledBytes) {
+        if (Long.bitCount(maxPooledBytes) != 1 || maxPooledBytes < MIN_BLOCK_BYTES) {
+            throw new IllegalArgumentException("Largest pooled block must be a power of two of at least " + MIN_BLOCK_BYTES);
+        }
+        if (slabBytes < maxPooledBytes) {
+            throw new IllegalArgumentException("Slab must hold at least one block of the largest size class");
+        }
+        this.slabBytes = slabBytes;
+        this.maxPooledBytes = maxPooledBytes;
+        int classes = Long.numberOfTrailingZeros(maxPooledBytes) - Long.numberOfTrailingZeros(MIN_BLOCK_BYTES) + 1;
+        this.sizeClasses = new SizeClass[classes];
+        for (int i = 0; i < classes; i++) {
+            sizeClasses[i] = new SizeClass(MIN_BLOCK_BYTES << i);
+        }
+    }
+
+    // the returned block is zeroed like an arena allocation, aligned to its size class and may be larger than asked
+    @Override
+    public MemorySegment allocate(long byteSize, long byteAlignment) {
+        if (byteSize > maxPooledBytes || byteAlignment > maxPooledBytes) {
+            // too large to pool: blocks this size are rare enough to get an arena of their own
+            ArenaMemoryBudget.global().reserve(BUDGET_TYPE, byteSize);
+            Arena blockArena = Arena.ofShared();
+            MemorySegment segment;
+            try {
+                segment = blockArena.allocate(byteSize, byteAlignment);
+            } catch (RuntimeException | Error e) {
+                blockArena.close();
+                ArenaMemoryBudget.global().release(BUDGET_TYPE, byteSize);
+                throw e;
+            }
+            oversized.put(segment.address(), new OversizedBlock(blockArena, byteSize));
+            return segment;
+        }
+        return sizeClassFor(byteSize).allocate();
+    }
+
+    // slabs are charged to the budget as a whole until the pool closes, however many blocks are in use
+    @Override
+    public boolean chargesBudget() {
+        return true;
+    }
+
+    @Override
+    public void free(MemorySegment segment) {
+        OversizedBlock block = oversized.remove(segment.address());
+        if (block != null) {
+            block.release();
+            return;
+        }
+        if (segment.byteSize() > maxPooledBytes || !segment.scope().equals(arena.scope())) return;
+        sizeClassFor(segment.byteSize()).free(segment);
+    }
+
+    public long slabCount() {
+        long slabs = 0;
+        for (SizeClass sizeClass : sizeClasses) {
+            slabs += sizeClass.slabCount();
+        }
+        return slabs;
+    }
+
+    public long reservedBytes() {
+        return slabCount() * slabBytes;
+    }
+
+    // releases every slab at once; arrays still drawing from the pool must not be used afterwards
+    @Override
+    public void close() {
+        arena.close();
+        ArenaMemoryBudget.global().release(BUDGET_TYPE, reservedBytes());
+        for (Long address : oversized.keySet()) {
+            OversizedBlock block = oversized.remove(address);
+            if (block != null) {
+                block.release();
+            }
+        }
+    }
+
+    private SizeClass sizeClassFor(long byteSize) {
+        long blockBytes = Math.max(MIN_BLOCK_BYTES, Long.highestOneBit(Math.max(1, byteSize - 1)) << 1);
+        return sizeClasses[Long.numberOfTrailingZeros(blockBytes) - Long.numberOfTrailingZeros(MIN_BLOCK_BYTES)];
+    }
+
+    private final class SizeClass {
+
+        private final long blockBytes;
+        private final ArrayDeque<MemorySegment> freeBlocks = new ArrayDeque<>();
+        private MemorySegment slab = MemorySegment.NULL;
+        private long bump;
+        private long slabs;
+
+        SizeClass(long blockBytes) {
+            this.blockBytes = blockBytes;
+        }
+
+        synchronized MemorySegment allocate() {
+            MemorySegment block = freeBlocks.poll();
+            if (block != null) {
+                return block.fill((byte) 0);
+            }
+            if (bump + blockBytes > slab.byteSize()) {
+                // fresh slabs come zeroed from the arena
+                ArenaMemoryBudget.global().reserve(BUDGET_TYPE, slabBytes);
+                try {
+                    slab = arena.allocate(slabBytes / blockBytes * blockBytes, blockBytes);
+                } catch (RuntimeException | Error e) {
+                    ArenaMemoryBudget.global().release(BUDGET_TYPE, slabBytes);
+                    throw e;
+                }
+                bump = 0;
+                slabs++;
+            }
+            block = slab.asSlice(bump, blockBytes);
+            bump += blockBytes;
+            return block;
+        }
+
+        synchronized void free(MemorySegment block) {
+            freeBlocks.push(block);
+        }
+
+        synchronized long slabCount() {
+            return slabs;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package dynarrays;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+// parses newline or comma separated numbers straight from a mapped file, without intermediate Strings
+public final class ArenaTextLoader {
+
+    private static final int BATCH_SIZE = 4096;
+    private static final int MAX_FAST_PATH_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private ArenaTextLoader() {
+    }
+
+    @FunctionalInterface
+    private interface ChunkParser {
+        void parse(MemorySegment text, long from, long to, ArenaDynArray<?> target);
+    }
+
+    public static ArenaDynArray<Long> loadLongs(Path file) {
+        return loadLongs(file, 1);
+    }
+
+    public static ArenaDynArray<Long> loadLongs(Path file, int parallelism) {
+        return load(file, parallelism, Long.class, ArenaTextLoader::parseLongs);
+    }
+
+    public static ArenaDynArray<Double> loadDoubles(Path file) {
+        return loadDoubles(file, 1);
+    }
+
+    public static ArenaDynArray<Double> loadDoubles(Path file, int parallelism) {
+        return load(file, parallelism, Double.class, ArenaTextLoader::parseDoubles);
+    }
+
+    private static <T> ArenaDynArray<T> load(Path file, int parallelism, Class<T> clazz, ChunkParser parser) {
+        Objects.requireNonNull(file);
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Arena mapping = Arena.ofShared()) {
+            long length = channel.size();
+            ArenaDynArray<T> result = new ArenaDynArray<>(clazz);
+            if (length == 0) return result;
+            AtomicReferenceArray<ArenaDynArray<T>> parts = new AtomicReferenceArray<>(parallelism);
+            try {
+                MemorySegment text = channel.map(FileChannel.MapMode.READ_ONLY, 0, length, mapping);
+                if (parallelism == 1) {
+                    parser.parse(text, 0, length, result);
+                    return result;
+                }
+
+                long[] bounds = chunkBounds(text, parallelism);
+                // a chunk keeps its failure instead of throwing, so every chunk has finished before anything is closed
+                RuntimeException[] failures = new RuntimeException[parallelism];
+                IntStream.range(0, parallelism).parallel().forEach(i -> {
+                    try {
+                        ArenaDynArray<T> part = new ArenaDynArray<>(clazz);
+                        parts.set(i, part);
+                        parser.parse(text, bounds[i], bounds[i + 1], part);
+                    } catch (RuntimeException e) {
+                        failures[i] = e;
+                    }
+                });
+                for (RuntimeException failure : failures) {
+                    if (failure != null) throw failure;
+                }
+                for (int i = 0; i < parallelism; i++) {
+                    ArenaDynArray<T> part = parts.get(i);
+                    result.appendRaw(part.rawSlice(0, part.longSize()));
+                    parts.set(i, null);
+                    part.close();
+                }
+                return result;
+            } catch (RuntimeException e) {
+                // nothing parsed so far is handed out, so none of it may stay charged
+                result.close();
+                for (int i = 0; i < parallelism; i++) {
+                    ArenaDynArray<T> part = parts.get(i);
+                    if (part != null) part.close();
+                }
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // splits the text in roughly equal chunks, moving every boundary past the next delimiter
+    private static long[] chunkBounds(MemorySegment text, int chunks) {
+        long length = text.byteSize();
+        long[] bounds = new long[chunks + 1];
+        bounds[chunks] = length;
+        for (int i = 1; i < chunks; i++) {
+            long bound = Math.max(bounds[i - 1], length * i / chunks);
+            while (bound < length && !isDelimiter(text.get(ValueLayout.JAVA_BYTE, bound))) {
+                bound++;
+            }
+            bounds[i] = bound;
+        }
+        return bounds;
+    }
+
+    private static void parseLongs(MemorySegment text, long from, long to, ArenaDynArray<?> target) {
+        long[] batch = new long[BATCH_SIZE];
+        int count = 0;
+        long pos = from;
+        while (pos < to) {
+            byte b = text.get(ValueLayout.JAVA_BYTE, pos);
+            if (isDelimiter(b)) {
+                pos++;
+                continue;
+            }
+
+            final long start = pos;
+            boolean negative = b == '-';
+            if (b == '-' || b == '+') pos++;
+            // accumulate negatively like Long.parseLong so that Long.MIN_VALUE fits
+            final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+            final long multiplyLimit = limit / 10;
+            long value = 0;
+            long digitsStart = pos;
+            while (pos < to && !isDelimiter(b = text.get(ValueLayout.JAVA_BYTE, pos))) {
+                int digit = b - '0';
+                if (digit < 0 || digit > 9 || value < multiplyLimit) {
+                    throw invalidNumber(text, start, to);
+                }
+                value *= 10;
+                if (value < limit + digit) {
+                    throw invalidNumber(text, start, to);
+                }
+                value -= digit;
+                pos++;
+            }
+            if (pos == digitsStart) {
+                throw invalidNumber(text, start, to);
+            }
+
+            batch[count++] = negative ? value : -value;
+            if (count == BATCH_SIZE) {
+                target.appendRaw(MemorySegment.ofArray(batch));
+                count = 0;
+            }
+        }
+        target.appendRaw(MemorySegment.ofArray(batch).asSlice(0, count * (long) Long.BYTES));
+    }
+
+    private static void parseDoubles(MemorySegment text, long from, long to, ArenaDynArray<?> target) {
+        double[] batch = new double[BATCH_SIZE];
+        int count = 0;
+        long pos = from;
+        while (pos < to) {
+            byte b = text.get(ValueLayout.JAVA_BYTE, pos);
+            if (isDelimiter(b)) {
+                pos++;
+                continue;
+            }
+
+            final long start = pos;
+            boolean negative = b == '-';
+            if (b == '-' || b == '+') pos++;
+            long mantissa = 0;
+            int significantDigits = 0;
+            int exponent = 0;
+            boolean sawDigit = false;
+            boolean sawDot = false;
+            boolean fastPath = true;
+
+            while (pos < to && !isDelimiter(b = text.get(ValueLayout.JAVA_BYTE, pos))) {
+                int digit = b - '0';
+                if (digit >= 0 && digit <= 9) {
+                    sawDigit = true;
+                    if (mantissa != 0 || digit != 0) significantDigits++;
+                    if (significantDigits > MAX_FAST_PATH_DIGITS) {
+                        fastPath = false;
+                    } else {
+                        mantissa = mantissa * 10 + digit;
+                        if (sawDot) exponent--;
+                    }
+                } else if (b == '.' && !sawDot) {
+                    sawDot = true;
+                } else if ((b == 'e' || b == 'E') && sawDigit) {
+                    pos++;
+                    int explicitExponent = 0;
+                    boolean negativeExponent = false;
+                    if (pos < to && ((b = text.get(ValueLayout.JAVA_BYTE, pos)) == '-' || b == '+')) {
+                        negativeExponent = b == '-';
+                        pos++;
+                    }
+                    long exponentStart = pos;
+                    while (pos < to && !isDelimiter(b = text.get(ValueLayout.JAVA_BYTE, pos))) {
+                        int exponentDigit = b - '0';
+                        if (exponentDigit < 0 || exponentDigit > 9) {
+                            throw invalidNumber(text, start, to);
+                        }
+                        explicitExponent = Math.min(explicitExponent * 10 + exponentDigit, 100_000);
+                        pos++;
+                    }
+                    if (pos == exponentStart) {
+                        throw invalidNumber(text, start, to);
+                    }
+                    exponent += negativeExponent ? -explicitExponent : explicitExponent;
+                    break;
+                } else {
+                    // NaN, Infinity, hex floats and malformed input go through the JDK parser
+                    fastPath = false;
+                }
+                pos++;
+            }
+
+            double value;
+            if (fastPath && sawDigit && exponent >= -22 && exponent <= 22) {
+                // exact: both the mantissa and the power of ten are representable doubles
+                value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+                if (negative) value = -value;
+            } else {
+                String token = token(text, start, to);
+                try {
+                    value = Double.parseDouble(token);
+                } catch (NumberFormatException e) {
+                    throw new NumberFormatException("Invalid number \"" + token + "\" at byte " + start);
+                }
+                while (pos < to && !isDelimiter(text.get(ValueLayout.JAVA_BYTE, pos))) pos++;
+            }
+
+            batch[count++] = value;
+            if (count == BATCH_SIZE) {
+                target.appendRaw(MemorySegment.ofArray(batch));
+                count = 0;
+            }
+        }
+        target.appendRaw(MemorySegment.ofArray(batch).asSlice(0, count * (long) Double.BYTES));
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return b == '\n' || b == ',' || b == '\r' || b == ' ' || b == '\t';
+    }
+
+    private static String token(MemorySegment text, long start, long to) {
+        long end = start;
+        while (end < to && !isDelimiter(text.get(ValueLayout.JAVA_BYTE, end))) end++;
+        byte[] bytes = text.asSlice(start, end - start).toArray(ValueLayout.JAVA_BYTE);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static NumberFormatException invalidNumber(MemorySegment text, long start, long to) {
+        return new NumberFormatException("Invalid number \"" + token(text, start, to) + "\" at byte " + start);
+    }
+}
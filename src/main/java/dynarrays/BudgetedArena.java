@@ -0,0 +1,41 @@
+package dynarrays;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+// the arena of a structure that allocates its own segments, charging every allocation to the global budget until
+// close(); arena memory is only freed in bulk, so buffers abandoned by growth stay charged until then too
+final class BudgetedArena implements AutoCloseable {
+
+    private final Arena arena;
+    private final ArenaDynArray.MemoryManagerType memoryManager;
+    private final String type;
+    private long chargedBytes;
+
+    BudgetedArena(ArenaDynArray.MemoryManagerType memoryManager, String type) {
+        this.arena = ArenaDynArray.initializeArena(memoryManager);
+        this.memoryManager = memoryManager;
+        this.type = type;
+    }
+
+    MemorySegment allocate(long byteSize, long byteAlignment) {
+        ArenaMemoryBudget.global().reserve(type, byteSize);
+        try {
+            MemorySegment segment = arena.allocate(byteSize, byteAlignment);
+            chargedBytes += byteSize;
+            return segment;
+        } catch (RuntimeException | Error e) {
+            ArenaMemoryBudget.global().release(type, byteSize);
+            throw e;
+        }
+    }
+
+    // like ArenaDynArray, memory of the global arena is never freed and stays charged
+    @Override
+    public void close() {
+        if (memoryManager == ArenaDynArray.MemoryManagerType.GLOBAL) return;
+        arena.close();
+        ArenaMemoryBudget.global().release(type, chargedBytes);
+        chargedBytes = 0;
+    }
+}
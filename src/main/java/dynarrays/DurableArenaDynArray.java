@@ -0,0 +1,254 @@
+package dynarrays;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class DurableArenaDynArray<T> implements AutoCloseable {
+
+    // log header: magic, element byte size and type code, followed by raw elements in native order
+    private static final long LOG_MAGIC = 0x4144594E57414C31L;
+    private static final int LOG_HEADER_BYTES = 16;
+
+    // one daemon thread commits every log whose oldest pending append reaches its policy's maxDelay
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "durable-arena-dyn-array-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // commits once maxPendingAppends are buffered, or at the latest maxDelay after the oldest pending append, so
+    // maxDelay bounds how long an acknowledged append can stay unsynced; a zero delay disables it
+    public record CommitPolicy(int maxPendingAppends, Duration maxDelay) {
+
+        public CommitPolicy {
+            if (maxPendingAppends < 1) {
+                throw new IllegalArgumentException("maxPendingAppends must be positive");
+            }
+            Objects.requireNonNull(maxDelay);
+        }
+
+        public static CommitPolicy everyAppend() {
+            return new CommitPolicy(1, Duration.ZERO);
+        }
+
+        public static CommitPolicy batched(int maxPendingAppends, Duration maxDelay) {
+            return new CommitPolicy(maxPendingAppends, maxDelay);
+        }
+    }
+
+    private final ArenaDynArray<T> values;
+    private final FileChannel log;
+    private final CommitPolicy policy;
+    private final long maxDelayNanos;
+    private long committedSize;
+    private long firstPendingNanos;
+    private ScheduledFuture<?> scheduledCommit;
+    private RuntimeException flushFailure;
+    private boolean closed;
+
+    private DurableArenaDynArray(ArenaDynArray<T> values, FileChannel log, CommitPolicy policy) {
+        this.values = values;
+        this.log = log;
+        this.policy = policy;
+        this.maxDelayNanos = policy.maxDelay().toNanos();
+        this.committedSize = values.longSize();
+    }
+
+    public static <T> DurableArenaDynArray<T> open(Class<T> clazz, Path file) {
+        return open(clazz, file, CommitPolicy.everyAppend());
+    }
+
+    // recovers every complete element already in the log, then keeps appending to it
+    public static <T> DurableArenaDynArray<T> open(Class<T> clazz, Path file, CommitPolicy policy) {
+        Objects.requireNonNull(file);
+        Objects.requireNonNull(policy);
+        ArenaDynArray<T> values = new ArenaDynArray<>(clazz);
+        FileChannel log = null;
+        try {
+            log = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (log.size() < LOG_HEADER_BYTES) {
+                writeHeader(log, values);
+            } else {
+                recover(log, values);
+            }
+            log.position(log.size());
+            return new DurableArenaDynArray<>(values, log, policy);
+        } catch (IOException e) {
+            closeQuietly(log, e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            closeQuietly(log, e);
+            throw e;
+        }
+    }
+
+    private static void writeHeader(FileChannel log, ArenaDynArray<?> values) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(LOG_MAGIC).putInt((int) values.elementByteSize()).putInt(values.typeCode()).flip();
+        log.truncate(0);
+        while (header.hasRemaining()) {
+            log.write(header, header.position());
+        }
+        log.force(true);
+    }
+
+    private static void recover(FileChannel log, ArenaDynArray<?> values) throws IOException {
+        long elementBytes = values.elementByteSize();
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            log.read(header, header.position());
+        }
+        header.flip();
+        if (header.getLong() != LOG_MAGIC) {
+            throw new IllegalStateException("File is not an ArenaDynArray log");
+        }
+        if (header.getInt() != elementBytes) {
+            throw new IllegalStateException("Log element size does not match " + elementBytes);
+        }
+        // the element size alone would let a Long log open as Double, or an Integer log as Float
+        if (!ArenaDynArray.isCompatibleTypeCode(values.elementClass(), header.getInt())) {
+            throw new UnsupportedDynArrayTypeException(values.elementClass());
+        }
+
+        // a crash can leave a torn element at the tail: drop it
+        long elements = (log.size() - LOG_HEADER_BYTES) / elementBytes;
+        long validBytes = elements * elementBytes;
+        log.truncate(LOG_HEADER_BYTES + validBytes);
+        if (elements == 0) return;
+        try (Arena mapping = Arena.ofConfined()) {
+            values.appendRaw(log.map(FileChannel.MapMode.READ_ONLY, LOG_HEADER_BYTES, validBytes, mapping));
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel, Exception cause) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException suppressed) {
+            cause.addSuppressed(suppressed);
+        }
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public long longSize() {
+        return values.longSize();
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    public T get(int index) {
+        return values.get(index);
+    }
+
+    public List<T> view() {
+        return Collections.unmodifiableList(values);
+    }
+
+    public synchronized int pendingAppends() {
+        return Math.toIntExact(values.longSize() - committedSize);
+    }
+
+    public synchronized boolean add(T element) {
+        throwFlushFailure();
+        values.add(element);
+        commitIfDue();
+        return true;
+    }
+
+    public synchronized boolean addAll(Collection<? extends T> c) {
+        Objects.requireNonNull(c);
+        throwFlushFailure();
+        for (T t : c) {
+            values.add(t);
+        }
+        commitIfDue();
+        return true;
+    }
+
+    // writes pending appends as one contiguous range and fsyncs the log
+    public synchronized void sync() {
+        throwFlushFailure();
+        if (scheduledCommit != null) {
+            scheduledCommit.cancel(false);
+            scheduledCommit = null;
+        }
+        long size = values.longSize();
+        if (size == committedSize) return;
+        MemorySegment pending = values.rawSlice(committedSize, size);
+        try {
+            ByteBuffer buffer = pending.asByteBuffer();
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+            log.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        committedSize = size;
+    }
+
+    private void commitIfDue() {
+        int pending = pendingAppends();
+        // a scheduled commit means a batch is open and firstPendingNanos is its start
+        if (pending >= policy.maxPendingAppends()
+                || (scheduledCommit != null && System.nanoTime() - firstPendingNanos >= maxDelayNanos)) {
+            sync();
+        } else if (maxDelayNanos > 0 && scheduledCommit == null && pending > 0) {
+            // first append since the last commit: commit it in the background if nothing else does in time
+            firstPendingNanos = System.nanoTime();
+            scheduledCommit = FLUSHER.schedule(this::scheduledSync, maxDelayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private synchronized void scheduledSync() {
+        scheduledCommit = null;
+        if (closed || flushFailure != null) return;
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            // nobody waits on the flusher; the next call on this log reports the failure
+            flushFailure = e;
+        }
+    }
+
+    private void throwFlushFailure() {
+        if (flushFailure != null) {
+            throw new IllegalStateException("Background commit of the log failed", flushFailure);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            sync();
+            log.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            values.close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package dynarrays;
+
+// cost of one doubling of a large array. The SHARED arena baseline cannot skip zeroing: Arena.allocate zeroes the
+// whole new buffer before the old values are copied in. The saving is only available with MALLOC, which reallocates
+// and zeroes just the new tail, or nothing past the last slot for a bulk load. This compares the three, not an arena
+// path before and after; argument is the size in MB before doubling, e.g.
+// java --enable-native-access=ALL-UNNAMED dynarrays.GrowthBenchmark 1024
+public class GrowthBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        long megabytes = args.length > 0 ? Long.parseLong(args[0]) : 512;
+        long elements = megabytes * (1 << 20) / Long.BYTES;
+        for (int round = 0; round < ROUNDS; round++) {
+            double zeroed = growth(ArenaDynArray.MemoryManagerType.SHARED, elements, false);
+            double tail = growth(ArenaDynArray.MemoryManagerType.MALLOC, elements, false);
+            double bulk = growth(ArenaDynArray.MemoryManagerType.MALLOC, elements, true);
+            // throughput over the grown buffer; bytes per nanosecond is GB/s
+            double bytes = 2.0 * elements * Long.BYTES;
+            System.out.printf("round %d: %d MB doubled, arena %.2f GB/s, malloc tail zeroed %.2f GB/s, malloc bulk load %.2f GB/s%n",
+                    round, megabytes, bytes / zeroed, bytes / tail, bytes / bulk);
+        }
+    }
+
+    private static long growth(ArenaDynArray.MemoryManagerType memoryManager, long elements, boolean bulkLoad) {
+        try (ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class, elements, memoryManager)) {
+            array.reserveRaw(elements - 1);
+            long start = System.nanoTime();
+            if (bulkLoad) {
+                // a bulk load overwrites everything it reserves, so of the doubled capacity only the last slot is zeroed;
+                // the loader's own writes are not part of the growth cost measured here
+                array.reserveRawUninitialized(elements);
+            } else {
+                array.add(1L);
+            }
+            return System.nanoTime() - start;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package dynarrays;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// anonymous 2MB aligned mappings advised with MADV_HUGEPAGE, so large arrays are backed by transparent huge pages;
+// small requests, non Linux systems and failed mappings fall back to an ordinary automatic arena
+final class HugePageAllocator implements NativeAllocator {
+
+    static final long HUGE_PAGE_BYTES = 2L << 20;
+
+    static final HugePageAllocator INSTANCE = new HugePageAllocator();
+
+    // Linux values, identical on x86_64 and aarch64
+    private static final int PROT_READ = 0x1;
+    private static final int PROT_WRITE = 0x2;
+    private static final int MAP_PRIVATE = 0x02;
+    private static final int MAP_ANONYMOUS = 0x20;
+    private static final int MADV_HUGEPAGE = 14;
+    private static final long MAP_FAILED = -1L;
+
+    private final int advice;
+    private final MethodHandle mmap;
+    private final MethodHandle munmap;
+    private final MethodHandle madvise;
+    // live mappings by segment address, so free can tell them from fallback segments
+    private final Map<Long, Mapping> mappings = new ConcurrentHashMap<>();
+
+    // the mapped range, which includes any slack that could not be trimmed, and the arena the segment lives in;
+    // closing the arena unmaps the range
+    private record Mapping(Arena arena, long address, long length, boolean hugePages) {
+    }
+
+    private HugePageAllocator() {
+        this(MADV_HUGEPAGE);
+    }
+
+    // the advice is a parameter only so tests can make madvise fail
+    HugePageAllocator(int advice) {
+        this.advice = advice;
+        MethodHandle mmapHandle = null;
+        MethodHandle munmapHandle = null;
+        MethodHandle madviseHandle = null;
+        if (System.getProperty("os.name", "").startsWith("Linux")) {
+            try {
+                Linker linker = Linker.nativeLinker();
+                SymbolLookup libc = linker.defaultLookup();
+                mmapHandle = linker.downcallHandle(libc.find("mmap").orElseThrow(), FunctionDescriptor.of(ValueLayout.ADDRESS,
+                        ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.JAVA_LONG));
+                munmapHandle = linker.downcallHandle(libc.find("munmap").orElseThrow(), FunctionDescriptor.of(ValueLayout.JAVA_INT,
+                        ValueLayout.ADDRESS, ValueLayout.JAVA_LONG));
+                madviseHandle = linker.downcallHandle(libc.find("madvise").orElseThrow(), FunctionDescriptor.of(ValueLayout.JAVA_INT,
+                        ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT));
+            } catch (RuntimeException e) {
+                mmapHandle = null;
+            }
+        }
+        this.mmap = mmapHandle;
+        this.munmap = munmapHandle;
+        this.madvise = madviseHandle;
+    }
+
+    static boolean isSupported() {
+        return INSTANCE.mmap != null;
+    }
+
+    @Override
+    public MemorySegment allocate(long byteSize, long byteAlignment) {
+        if (mmap == null || byteSize < HUGE_PAGE_BYTES || byteAlignment > HUGE_PAGE_BYTES) {
+            return Arena.ofAuto().allocate(byteSize, byteAlignment);
+        }
+        long length = (byteSize + HUGE_PAGE_BYTES - 1) / HUGE_PAGE_BYTES * HUGE_PAGE_BYTES;
+        try {
+            // over-map by one huge page and unmap the slack on both sides to get a 2MB aligned region
+            long reserved = length + HUGE_PAGE_BYTES;
+            long base = ((MemorySegment) mmap.invokeExact(MemorySegment.NULL, reserved, PROT_READ | PROT_WRITE,
+                    MAP_PRIVATE | MAP_ANONYMOUS, -1, 0L)).address();
+            if (base == MAP_FAILED) {
+                return Arena.ofAuto().allocate(byteSize, byteAlignment);
+            }
+            long aligned = (base + HUGE_PAGE_BYTES - 1) / HUGE_PAGE_BYTES * HUGE_PAGE_BYTES;
+            // slack that fails to unmap stays part of the mapping and is unmapped with it on free
+            long start = base;
+            long end = base + reserved;
+            if (aligned > base && unmap(base, aligned - base)) {
+                start = aligned;
+            }
+            if (end > aligned + length && unmap(aligned + length, end - (aligned + length))) {
+                end = aligned + length;
+            }
+            // the advice is best effort: without transparent huge pages the mapping still works with normal pages
+            int advised = (int) madvise.invokeExact(MemorySegment.ofAddress(aligned), length, advice);
+            Arena arena = Arena.ofShared();
+            Mapping mapping = new Mapping(arena, start, end - start, advised == 0);
+            mappings.put(aligned, mapping);
+            return MemorySegment.ofAddress(aligned).reinterpret(byteSize, arena, unused -> unmap(mapping));
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not map huge page memory", e);
+        }
+    }
+
+    @Override
+    public void free(MemorySegment segment) {
+        Mapping mapping = mappings.remove(segment.address());
+        if (mapping == null) return;
+        // invalidates the segment and any slices of it, then unmaps the range in the cleanup
+        mapping.arena().close();
+    }
+
+    // true only for live mappings the kernel accepted the huge page advice for
+    boolean isHugePageMapping(MemorySegment segment) {
+        Mapping mapping = mappings.get(segment.address());
+        return mapping != null && mapping.hugePages();
+    }
+
+    private void unmap(Mapping mapping) {
+        if (!unmap(mapping.address(), mapping.length())) {
+            throw new IllegalStateException("Could not unmap " + mapping.length() + " bytes of huge page memory");
+        }
+    }
+
+    private boolean unmap(long address, long length) {
+        try {
+            return (int) munmap.invokeExact(MemorySegment.ofAddress(address), length) == 0;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not unmap huge page memory", e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package dynarrays;
+
+import java.util.SplittableRandom;
+
+// random get/set over a large array with ordinary arena memory versus huge page backed memory;
+// argument is the array size in MB, e.g. java --enable-native-access=ALL-UNNAMED dynarrays.HugePageBenchmark 64
+public class HugePageBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        long megabytes = args.length > 0 ? Long.parseLong(args[0]) : 512;
+        long elements = megabytes * (1 << 20) / Long.BYTES;
+        long accesses = Math.min(elements, 20_000_000L);
+        System.out.println("huge pages supported: " + HugePageAllocator.isSupported());
+        for (int round = 0; round < ROUNDS; round++) {
+            double normal = run(ArenaDynArray.MemoryManagerType.SHARED, elements, accesses);
+            double huge = run(ArenaDynArray.MemoryManagerType.HUGE_PAGES, elements, accesses);
+            System.out.printf("round %d: %d MB, shared %.2f ns/access, huge pages %.2f ns/access%n",
+                    round, megabytes, normal, huge);
+        }
+    }
+
+    private static double run(ArenaDynArray.MemoryManagerType memoryManager, long elements, long accesses) {
+        // one spare slot so reserving the elements does not trigger a doubling
+        try (ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class, elements + 1, memoryManager)) {
+            array.reserveRaw(elements);
+            array.fill(0, elements, 1L);
+            SplittableRandom random = new SplittableRandom(42);
+            long sum = 0;
+            long start = System.nanoTime();
+            for (long i = 0; i < accesses; i++) {
+                long index = random.nextLong(elements);
+                long value = array.getAt(index);
+                array.setAt(index, value + 1);
+                sum += value;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (sum == 42) System.out.println();
+            return (double) elapsed / accesses;
+        }
+    }
+}
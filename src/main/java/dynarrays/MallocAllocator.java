@@ -0,0 +1,90 @@
+package dynarrays;
+
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+
+// libc heap through Linker downcalls; growth goes through realloc, which glibc serves with mremap for large
+// blocks, so doubling a multi-GB array moves page table entries instead of copying the data. Blocks live in the
+// global scope: an arena per block would cost a thread handshake on every free and realloc when it closes. Like
+// any libc pointer, a freed or moved block is not detected; ArenaDynArray drops its segment on both
+final class MallocAllocator implements NativeAllocator {
+
+    // malloc guarantees alignment for any fundamental type, 16 bytes on 64 bit glibc
+    static final long MALLOC_ALIGNMENT = 16;
+
+    static final MallocAllocator INSTANCE = new MallocAllocator();
+
+    private final MethodHandle calloc;
+    private final MethodHandle realloc;
+    private final MethodHandle free;
+
+    private MallocAllocator() {
+        Linker linker = Linker.nativeLinker();
+        SymbolLookup libc = linker.defaultLookup();
+        this.calloc = linker.downcallHandle(libc.find("calloc").orElseThrow(),
+                FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG));
+        this.realloc = linker.downcallHandle(libc.find("realloc").orElseThrow(),
+                FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG));
+        this.free = linker.downcallHandle(libc.find("free").orElseThrow(),
+                FunctionDescriptor.ofVoid(ValueLayout.ADDRESS));
+    }
+
+    @Override
+    public MemorySegment allocate(long byteSize, long byteAlignment) {
+        checkAlignment(byteAlignment);
+        MemorySegment block;
+        try {
+            // calloc keeps the zeroed memory contract of arena allocations, and gets fresh pages from the kernel for free
+            block = (MemorySegment) calloc.invokeExact(Math.max(1, byteSize), 1L);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not call calloc", e);
+        }
+        if (block.equals(MemorySegment.NULL)) {
+            throw new OutOfMemoryError("calloc failed to allocate " + byteSize + " bytes");
+        }
+        return block.reinterpret(byteSize);
+    }
+
+    @Override
+    public MemorySegment reallocate(MemorySegment segment, long byteSize, long byteAlignment, long overwrittenBytes) {
+        checkAlignment(byteAlignment);
+        long oldByteSize = segment.byteSize();
+        MemorySegment block;
+        try {
+            block = (MemorySegment) realloc.invokeExact(segment, Math.max(1, byteSize));
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not call realloc", e);
+        }
+        if (block.equals(MemorySegment.NULL)) {
+            // the old block is still valid and owned by the array
+            throw new OutOfMemoryError("realloc failed to grow " + oldByteSize + " to " + byteSize + " bytes");
+        }
+        MemorySegment resized = block.reinterpret(byteSize);
+        // realloc leaves the grown part undefined; only the part the caller does not overwrite is zeroed
+        long zeroFrom = Math.max(oldByteSize, overwrittenBytes);
+        if (byteSize > zeroFrom) {
+            resized.asSlice(zeroFrom).fill((byte) 0);
+        }
+        return resized;
+    }
+
+    @Override
+    public void free(MemorySegment segment) {
+        if (segment.equals(MemorySegment.NULL)) return;
+        try {
+            free.invokeExact(segment);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not call free", e);
+        }
+    }
+
+    private static void checkAlignment(long byteAlignment) {
+        if (byteAlignment > MALLOC_ALIGNMENT) {
+            throw new IllegalArgumentException("malloc cannot align to " + byteAlignment + " bytes");
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package dynarrays;
+
+public class MemoryBudgetExceededException extends RuntimeException {
+    public MemoryBudgetExceededException(String type, long requestedBytes, long liveBytes, long limitBytes) {
+        super("Allocating " + requestedBytes + " bytes for " + type + " exceeds the native memory budget: "
+                + liveBytes + " of " + limitBytes + " bytes in use");
+    }
+}
@@ -0,0 +1,28 @@
+package dynarrays;
+
+import java.lang.foreign.MemorySegment;
+
+// memory source for arrays that do not own an arena: slab pools, scopes and caller supplied arenas
+interface NativeAllocator {
+
+    MemorySegment allocate(long byteSize, long byteAlignment);
+
+    // allocators that keep memory after an array frees it (pools, scopes, caller arenas) charge the global budget
+    // themselves for what they hold; arrays only charge their own blocks to the budget for the others
+    default boolean chargesBudget() {
+        return false;
+    }
+
+    // hands back a segment the array no longer uses; allocators that free in bulk ignore it
+    default void free(MemorySegment segment) {
+    }
+
+    // grows a segment keeping its contents; bytes past them read as zero, except that bytes below overwrittenBytes,
+    // which the caller writes next, may be left undefined. allocators that can resize in place override this
+    default MemorySegment reallocate(MemorySegment segment, long byteSize, long byteAlignment, long overwrittenBytes) {
+        MemorySegment resized = allocate(byteSize, byteAlignment);
+        MemorySegment.copy(segment, 0, resized, 0, Math.min(segment.byteSize(), byteSize));
+        free(segment);
+        return resized;
+    }
+}
@@ -0,0 +1,147 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaArrowIOTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void fileStartsAndEndsWithMagic() throws IOException {
+        Path file = tempDir.resolve("values.arrow");
+        ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class);
+        array.add(1);
+        ArenaArrowIO.write(array, file);
+        byte[] bytes = Files.readAllBytes(file);
+        assertEquals("ARROW1", new String(bytes, 0, 6, StandardCharsets.US_ASCII));
+        assertEquals("ARROW1", new String(bytes, bytes.length - 6, 6, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void roundTripLongsIsMappedReadOnly() {
+        Path file = tempDir.resolve("values.arrow");
+        ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class);
+        for (long i = 0; i < 1000; i++) {
+            array.add(i * i);
+        }
+        ArenaArrowIO.write(array, file, "ts");
+        try (ArenaDynArray<Long> restored = ArenaArrowIO.read(Long.class, file)) {
+            assertEquals(1000, restored.size());
+            assertEquals(999L * 999L, restored.getLast());
+            assertTrue(restored.isReadOnly());
+            assertThrows(UnsupportedOperationException.class, () -> restored.add(1L));
+        }
+    }
+
+    @Test
+    void roundTripPrimitiveTypes() {
+        ArenaDynArray<Integer> ints = new ArenaDynArray<>(Integer.class);
+        ints.addAll(Arrays.asList(-1, 0, Integer.MAX_VALUE));
+        ArenaArrowIO.write(ints, tempDir.resolve("ints.arrow"));
+        assertArrayEquals(ints.toArray(), ArenaArrowIO.read(Integer.class, tempDir.resolve("ints.arrow")).toArray());
+
+        ArenaDynArray<Double> doubles = new ArenaDynArray<>(Double.class);
+        doubles.addAll(Arrays.asList(0.5, Double.NaN, -1e300));
+        ArenaArrowIO.write(doubles, tempDir.resolve("doubles.arrow"));
+        assertArrayEquals(doubles.toArray(), ArenaArrowIO.read(Double.class, tempDir.resolve("doubles.arrow")).toArray());
+
+        ArenaDynArray<Character> chars = new ArenaDynArray<>(Character.class);
+        chars.addAll(Arrays.asList('a', Character.MAX_VALUE));
+        ArenaArrowIO.write(chars, tempDir.resolve("chars.arrow"));
+        assertArrayEquals(chars.toArray(), ArenaArrowIO.read(Character.class, tempDir.resolve("chars.arrow")).toArray());
+    }
+
+    @Test
+    void roundTripHalfFloatsKeepsStorage() {
+        Path file = tempDir.resolve("halves.arrow");
+        ArenaDynArray<Float> array = new ArenaDynArray<>(Float.class, 4,
+                ArenaDynArray.MemoryManagerType.SHARED, ArenaDynArray.FloatStorage.FLOAT16);
+        array.addFloats(new float[]{1.5f, -2f, 0.25f});
+        ArenaArrowIO.write(array, file);
+        ArenaDynArray<Float> restored = ArenaArrowIO.read(Float.class, file);
+        assertArrayEquals(new float[]{1.5f, -2f, 0.25f}, restored.toFloatArray());
+    }
+
+    @Test
+    void roundTripEmptyArray() {
+        Path file = tempDir.resolve("empty.arrow");
+        ArenaArrowIO.write(new ArenaDynArray<>(Long.class), file);
+        assertTrue(ArenaArrowIO.read(Long.class, file).isEmpty());
+    }
+
+    @Test
+    void readWithDifferentTypeThrows() {
+        Path file = tempDir.resolve("values.arrow");
+        ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class);
+        array.add(1L);
+        ArenaArrowIO.write(array, file);
+        assertThrows(UnsupportedDynArrayTypeException.class, () -> ArenaArrowIO.read(Double.class, file));
+        assertThrows(UnsupportedDynArrayTypeException.class, () -> ArenaArrowIO.read(Integer.class, file));
+    }
+
+    @Test
+    void writeBooleanArrayThrows() {
+        ArenaDynArray<Boolean> array = new ArenaDynArray<>(Boolean.class);
+        assertThrows(UnsupportedDynArrayTypeException.class, () -> ArenaArrowIO.write(array, tempDir.resolve("b.arrow")));
+    }
+
+    @Test
+    void readNonArrowFileThrows() throws IOException {
+        Path file = Files.write(tempDir.resolve("junk.arrow"), new byte[64]);
+        assertThrows(IllegalStateException.class, () -> ArenaArrowIO.read(Long.class, file));
+    }
+
+    // written by src/test/resources/dynarrays/arrow/generate_references.py, not by ArenaArrowIO
+    private static Path reference(String name) {
+        try {
+            return Path.of(ArenaArrowIOTest.class.getResource("arrow/" + name + ".arrow").toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void readsReferenceIntegerFiles() {
+        try (ArenaDynArray<Integer> ints = ArenaArrowIO.read(Integer.class, reference("int32"));
+             ArenaDynArray<Character> chars = ArenaArrowIO.read(Character.class, reference("uint16"))) {
+            assertArrayEquals(new Integer[]{Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE}, ints.toArray());
+            assertArrayEquals(new Character[]{'A', '\u03A9', Character.MAX_VALUE}, chars.toArray());
+        }
+    }
+
+    @Test
+    void readsReferenceFloatingPointFiles() {
+        try (ArenaDynArray<Double> doubles = ArenaArrowIO.read(Double.class, reference("float64"));
+             ArenaDynArray<Float> floats = ArenaArrowIO.read(Float.class, reference("float32"));
+             ArenaDynArray<Float> halves = ArenaArrowIO.read(Float.class, reference("float16"))) {
+            assertArrayEquals(new Double[]{0.5, -1e300, Double.POSITIVE_INFINITY, Double.MIN_VALUE}, doubles.toArray());
+            assertArrayEquals(new float[]{1.5f, -0f, Float.MAX_VALUE, Float.MIN_VALUE}, floats.toFloatArray());
+            assertEquals(ArenaDynArray.FloatStorage.FLOAT16, halves.floatStorage());
+            assertArrayEquals(new float[]{1f, -2f, 0.5f, 65504f}, halves.toFloatArray());
+        }
+    }
+
+    @Test
+    void readsReferenceFileWithSeveralBatches() {
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long before = budget.getLiveBytes();
+        try (ArenaDynArray<Long> longs = ArenaArrowIO.read(Long.class, reference("int64"))) {
+            assertArrayEquals(new Long[]{0L, -1L, 1L << 62, Long.MAX_VALUE, Long.MIN_VALUE}, longs.toArray());
+            assertFalse(longs.isReadOnly());
+            // both batches copied into one segment with a spare slot, without a grown copy
+            assertEquals(before + 6 * Long.BYTES, budget.getLiveBytes());
+        }
+        assertEquals(before, budget.getLiveBytes());
+    }
+}
@@ -0,0 +1,118 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaCompressedDoubleArrayTest {
+
+    double[] createSamples(int count) {
+        Random random = new Random(42);
+        double[] values = new double[count];
+        double sample = 20.0;
+        for (int i = 0; i < count; i++) {
+            if (i % 4 != 0) {
+                sample = Math.round((sample + random.nextGaussian()) * 10) / 10.0;
+            }
+            values[i] = sample;
+        }
+        return values;
+    }
+
+    @Test
+    void sizeIsZeroOnNewArray() {
+        ArenaCompressedDoubleArray array = new ArenaCompressedDoubleArray();
+        assertEquals(0, array.size());
+        assertTrue(array.isEmpty());
+    }
+
+    @Test
+    void getReturnsValuesAcrossBlocks() {
+        ArenaCompressedDoubleArray array = new ArenaCompressedDoubleArray();
+        double[] values = createSamples(10_000);
+        array.addAll(values);
+        assertEquals(values.length, array.size());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], array.getDouble(i));
+        }
+    }
+
+    @Test
+    void preservesSpecialValuesBitForBit() {
+        ArenaCompressedDoubleArray array = new ArenaCompressedDoubleArray();
+        double[] values = {1.0, Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.MIN_VALUE, Double.MAX_VALUE};
+        array.addAll(values);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(array.getDouble(i)));
+        }
+    }
+
+    @Test
+    void compressesSlowlyChangingSamples() {
+        ArenaCompressedDoubleArray array = new ArenaCompressedDoubleArray();
+        double[] constant = new double[10_000];
+        Arrays.fill(constant, 42.5);
+        array.addAll(constant);
+        assertTrue(array.compressedByteSize() < constant.length * (long) Double.BYTES / 10);
+    }
+
+    @Test
+    void forEachStreamsValuesInOrder() {
+        ArenaCompressedDoubleArray array = new ArenaCompressedDoubleArray();
+        double[] values = createSamples(1000);
+        array.addAll(values);
+        List<Double> visited = new ArrayList<>();
+        array.forEach(visited::add);
+        assertEquals(values.length, visited.size());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], visited.get(i));
+        }
+    }
+
+    @Test
+    void clearAllowsReuse() {
+        ArenaCompressedDoubleArray array = new ArenaCompressedDoubleArray();
+        array.addAll(createSamples(600));
+        array.clear();
+        assertTrue(array.isEmpty());
+        array.addAll(1.5, 2.5);
+        assertEquals(2.5, array.getDouble(1));
+    }
+
+    @Test
+    void getThrowsOnInvalidIndex() {
+        ArenaCompressedDoubleArray array = new ArenaCompressedDoubleArray();
+        array.add(1.0);
+        assertThrows(IndexOutOfBoundsException.class, () -> array.getDouble(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.getDouble(1));
+    }
+
+    @Test
+    void concurrentReadersDecodeIndependently() {
+        try (ArenaCompressedDoubleArray array = new ArenaCompressedDoubleArray()) {
+            double[] values = createSamples(10_000);
+            array.addAll(values);
+            // a shared cursor would let one reader seek another reader's decoding position
+            assertTrue(IntStream.range(0, 8).parallel().allMatch(reader -> {
+                for (int i = reader; i < values.length; i += 7) {
+                    if (Double.doubleToRawLongBits(array.getDouble(i)) != Double.doubleToRawLongBits(values[i])) return false;
+                }
+                return true;
+            }));
+        }
+    }
+
+    @Test
+    void streamIsChargedUntilClosed() {
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long before = budget.getLiveBytes();
+        ArenaCompressedDoubleArray array = new ArenaCompressedDoubleArray();
+        array.addAll(createSamples(10_000));
+        assertTrue(budget.getLiveBytes() >= before + array.compressedByteSize());
+        array.close();
+        assertEquals(before, budget.getLiveBytes());
+    }
+}
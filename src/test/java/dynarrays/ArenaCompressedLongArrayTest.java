@@ -0,0 +1,125 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaCompressedLongArrayTest {
+
+    long[] createTimestamps(int count) {
+        Random random = new Random(42);
+        long[] values = new long[count];
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            timestamp += random.nextInt(1000);
+            values[i] = timestamp;
+        }
+        return values;
+    }
+
+    @Test
+    void sizeIsZeroOnNewArray() {
+        ArenaCompressedLongArray array = new ArenaCompressedLongArray();
+        assertEquals(0, array.size());
+        assertTrue(array.isEmpty());
+    }
+
+    @Test
+    void getReturnsPendingValuesBeforeFirstBlock() {
+        ArenaCompressedLongArray array = new ArenaCompressedLongArray();
+        array.addAll(5L, 7L, 3L);
+        assertEquals(0, array.blockCount());
+        assertEquals(5L, array.getLong(0));
+        assertEquals(3L, array.getLong(2));
+    }
+
+    @Test
+    void getReturnsValuesAcrossBlocks() {
+        ArenaCompressedLongArray array = new ArenaCompressedLongArray();
+        long[] values = createTimestamps(10_000);
+        array.addAll(values);
+        assertEquals(values.length, array.size());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], array.getLong(i));
+        }
+    }
+
+    @Test
+    void compressesMonotonicValues() {
+        ArenaCompressedLongArray array = new ArenaCompressedLongArray();
+        long[] values = createTimestamps(10_000);
+        array.addAll(values);
+        assertTrue(array.compressedByteSize() < values.length * (long) Long.BYTES / 4);
+    }
+
+    @Test
+    void handlesExtremeDeltas() {
+        ArenaCompressedLongArray array = new ArenaCompressedLongArray();
+        long[] values = new long[ArenaCompressedLongArray.BLOCK_SIZE * 2];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 2 == 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        array.addAll(values);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], array.getLong(i));
+        }
+    }
+
+    @Test
+    void constantValuesUseZeroBitWidth() {
+        ArenaCompressedLongArray array = new ArenaCompressedLongArray();
+        for (int i = 0; i < ArenaCompressedLongArray.BLOCK_SIZE; i++) {
+            array.add(9L);
+        }
+        assertEquals(1, array.blockCount());
+        assertEquals(9L, array.getLong(ArenaCompressedLongArray.BLOCK_SIZE - 1));
+    }
+
+    @Test
+    void decodeBlockReturnsWholeBlock() {
+        ArenaCompressedLongArray array = new ArenaCompressedLongArray();
+        long[] values = createTimestamps(ArenaCompressedLongArray.BLOCK_SIZE + 3);
+        array.addAll(values);
+        long[] decoded = new long[ArenaCompressedLongArray.BLOCK_SIZE];
+        assertEquals(ArenaCompressedLongArray.BLOCK_SIZE, array.decodeBlock(0, decoded));
+        assertArrayEquals(Arrays.copyOf(values, ArenaCompressedLongArray.BLOCK_SIZE), decoded);
+        assertEquals(3, array.decodeBlock(1, decoded));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.decodeBlock(2, decoded));
+    }
+
+    @Test
+    void forEachVisitsValuesInOrder() {
+        ArenaCompressedLongArray array = new ArenaCompressedLongArray();
+        long[] values = createTimestamps(1000);
+        array.addAll(values);
+        List<Long> visited = new ArrayList<>();
+        array.forEach(visited::add);
+        assertEquals(values.length, visited.size());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], visited.get(i));
+        }
+    }
+
+    @Test
+    void getThrowsOnInvalidIndex() {
+        ArenaCompressedLongArray array = new ArenaCompressedLongArray();
+        array.add(1L);
+        assertThrows(IndexOutOfBoundsException.class, () -> array.getLong(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.getLong(1));
+    }
+
+    @Test
+    void blocksAreChargedUntilClosed() {
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long before = budget.getLiveBytes();
+        ArenaCompressedLongArray array = new ArenaCompressedLongArray();
+        // headers and data for the 8 starting blocks
+        assertEquals(before + 8 * 32 + 8 * ArenaCompressedLongArray.BLOCK_SIZE, budget.getLiveBytes());
+        array.addAll(createTimestamps(10_000));
+        assertTrue(budget.getLiveBytes() > before + 8 * 32 + 8 * ArenaCompressedLongArray.BLOCK_SIZE);
+        array.close();
+        assertEquals(before, budget.getLiveBytes());
+    }
+}
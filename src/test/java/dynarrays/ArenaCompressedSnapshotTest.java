@@ -0,0 +1,137 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaCompressedSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    FileChannel openForWrite(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    FileChannel openForRead(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    @Test
+    void roundTripRestoresValuesAcrossBlocks() throws IOException {
+        Path file = tempDir.resolve("snapshot.z");
+        ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class);
+        for (long i = 0; i < 100_000; i++) {
+            array.add(i % 1000);
+        }
+        try (FileChannel channel = openForWrite(file)) {
+            ArenaCompressedSnapshot.write(array, channel, 4096, Deflater.BEST_SPEED);
+        }
+        assertTrue(Files.size(file) < 100_000L * Long.BYTES / 4);
+        try (FileChannel channel = openForRead(file);
+             ArenaDynArray<Long> restored = ArenaCompressedSnapshot.read(Long.class, channel)) {
+            assertEquals(array.size(), restored.size());
+            for (int i = 0; i < array.size(); i++) {
+                assertEquals(array.get(i), restored.get(i));
+            }
+            assertEquals(Files.size(file), channel.position());
+        }
+    }
+
+    @Test
+    void restoreHoldsOnlyTheDecompressedData() throws IOException {
+        Path file = tempDir.resolve("snapshot.z");
+        try (ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class);
+             FileChannel channel = openForWrite(file)) {
+            for (long i = 0; i < 100_000; i++) {
+                array.add(i);
+            }
+            ArenaCompressedSnapshot.write(array, channel);
+        }
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long before = budget.getLiveBytes();
+        try (FileChannel channel = openForRead(file);
+             ArenaDynArray<Long> restored = ArenaCompressedSnapshot.read(Long.class, channel)) {
+            // the restored values and one spare slot, no doubled or discarded buffer
+            assertEquals(before + 100_001 * Long.BYTES, budget.getLiveBytes());
+            assertEquals(99_999L, restored.getLast());
+        }
+    }
+
+    @Test
+    void readRangeInflatesOnlyRequestedElements() throws IOException {
+        Path file = tempDir.resolve("snapshot.z");
+        ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class);
+        for (int i = 0; i < 10_000; i++) {
+            array.add(i * 7);
+        }
+        try (FileChannel channel = openForWrite(file)) {
+            ArenaCompressedSnapshot.write(array, channel, 1000, Deflater.DEFAULT_COMPRESSION);
+        }
+        try (FileChannel channel = openForRead(file);
+             ArenaDynArray<Integer> range = ArenaCompressedSnapshot.readRange(Integer.class, channel, 2_345, 6_789)) {
+            assertEquals(6_789 - 2_345, range.size());
+            assertEquals(2_345 * 7, range.get(0));
+            assertEquals(6_788 * 7, range.get(range.size() - 1));
+            assertEquals(0, channel.position());
+        }
+    }
+
+    @Test
+    void readRangeRejectsOutOfBounds() throws IOException {
+        Path file = tempDir.resolve("snapshot.z");
+        ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class);
+        array.add(1);
+        try (FileChannel channel = openForWrite(file)) {
+            ArenaCompressedSnapshot.write(array, channel);
+        }
+        try (FileChannel channel = openForRead(file)) {
+            assertThrows(IndexOutOfBoundsException.class, () -> ArenaCompressedSnapshot.readRange(Integer.class, channel, 0, 2));
+        }
+    }
+
+    @Test
+    void roundTripEmptyArray() throws IOException {
+        Path file = tempDir.resolve("snapshot.z");
+        try (FileChannel channel = openForWrite(file)) {
+            ArenaCompressedSnapshot.write(new ArenaDynArray<>(Double.class), channel);
+        }
+        try (FileChannel channel = openForRead(file)) {
+            assertTrue(ArenaCompressedSnapshot.read(Double.class, channel).isEmpty());
+        }
+    }
+
+    @Test
+    void readRejectsIncompatibleType() throws IOException {
+        Path file = tempDir.resolve("snapshot.z");
+        ArenaDynArray<Double> array = new ArenaDynArray<>(Double.class);
+        array.add(1.5);
+        try (FileChannel channel = openForWrite(file)) {
+            ArenaCompressedSnapshot.write(array, channel);
+        }
+        try (FileChannel channel = openForRead(file)) {
+            assertThrows(UnsupportedDynArrayTypeException.class, () -> ArenaCompressedSnapshot.read(Integer.class, channel));
+        }
+    }
+
+    @Test
+    void readRejectsPlainSnapshot() throws IOException {
+        Path file = tempDir.resolve("snapshot.bin");
+        ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class);
+        array.add(3);
+        try (FileChannel channel = openForWrite(file)) {
+            array.writeTo(channel);
+        }
+        try (FileChannel channel = openForRead(file)) {
+            assertThrows(IllegalStateException.class, () -> ArenaCompressedSnapshot.read(Integer.class, channel));
+        }
+    }
+}
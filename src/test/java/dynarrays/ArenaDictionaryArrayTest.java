@@ -0,0 +1,103 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaDictionaryArrayTest {
+
+    void createArrayWithValues(ArenaDictionaryArray array, String... values) {
+        for (String v : values) array.add(v);
+    }
+
+    @Test
+    void sizeIsZeroOnNewArray() {
+        ArenaDictionaryArray array = new ArenaDictionaryArray();
+        assertEquals(0, array.size());
+        assertTrue(array.isEmpty());
+    }
+
+    @Test
+    void addStoresValueAndDeduplicatesDictionary() {
+        ArenaDictionaryArray array = new ArenaDictionaryArray();
+        createArrayWithValues(array, "IT", "US", "IT", "DE", "US");
+        assertEquals(5, array.size());
+        assertEquals(3, array.dictionarySize());
+        assertEquals("IT", array.get(0));
+        assertEquals("US", array.get(4));
+    }
+
+    @Test
+    void codeAtReturnsSameCodeForEqualValues() {
+        ArenaDictionaryArray array = new ArenaDictionaryArray();
+        createArrayWithValues(array, "IT", "US", "IT");
+        assertEquals(array.codeAt(0), array.codeAt(2));
+        assertNotEquals(array.codeAt(0), array.codeAt(1));
+        assertEquals("US", array.valueOf(array.codeAt(1)));
+    }
+
+    @Test
+    void codeOfAbsentValueIsNegative() {
+        ArenaDictionaryArray array = new ArenaDictionaryArray();
+        array.add("IT");
+        assertEquals(-1, array.codeOf("FR"));
+    }
+
+    @Test
+    void addNullElementThrows() {
+        ArenaDictionaryArray array = new ArenaDictionaryArray();
+        assertThrows(NullPointerException.class, () -> array.add(null));
+    }
+
+    @Test
+    void getThrowsOnInvalidIndex() {
+        ArenaDictionaryArray array = new ArenaDictionaryArray();
+        array.add("IT");
+        assertThrows(IndexOutOfBoundsException.class, () -> array.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.get(1));
+    }
+
+    @Test
+    void addAtMaxCapacityBoundary() {
+        ArenaDictionaryArray array = new ArenaDictionaryArray(1);
+        createArrayWithValues(array, "a", "b", "c");
+        assertEquals(3, array.size());
+        assertEquals("a", array.get(0));
+        assertEquals("c", array.get(2));
+    }
+
+    @Test
+    void filterReturnsMatchingIndexes() {
+        ArenaDictionaryArray array = new ArenaDictionaryArray();
+        createArrayWithValues(array, "IT", "US", "IT", "DE", "IT");
+        ArenaDynArray<Integer> indexes = array.filter("IT");
+        assertEquals(3, indexes.size());
+        assertEquals(0, indexes.get(0));
+        assertEquals(2, indexes.get(1));
+        assertEquals(4, indexes.get(2));
+        assertEquals(3, array.count(array.codeOf("IT")));
+    }
+
+    @Test
+    void filterOnAbsentValueReturnsEmpty() {
+        ArenaDictionaryArray array = new ArenaDictionaryArray();
+        createArrayWithValues(array, "IT", "US");
+        assertTrue(array.filter("FR").isEmpty());
+        assertEquals(0, array.count("FR"));
+    }
+
+    @Test
+    void codesAreChargedUntilClosed() {
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long before = budget.getLiveBytes();
+        ArenaDictionaryArray array = new ArenaDictionaryArray();
+        for (int i = 0; i < 10; i++) {
+            array.add(i % 2 == 0 ? "IT" : "US");
+        }
+        // the first 8 codes and the grown 16, which the arena keeps until it closes
+        assertEquals(before + 24 * Integer.BYTES, budget.getLiveBytes());
+        array.close();
+        assertEquals(before, budget.getLiveBytes());
+        assertThrows(IllegalStateException.class, () -> array.codeAt(0));
+    }
+}
@@ -0,0 +1,92 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaDynArrayByteOrderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void defaultsToNativeOrder() {
+        assertEquals(ByteOrder.nativeOrder(), new ArenaDynArray<>(Integer.class).byteOrder());
+    }
+
+    @Test
+    void bigEndianArrayStoresBigEndianBytes() {
+        ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class, 4, ArenaDynArray.MemoryManagerType.SHARED,
+                ArenaDynArray.FloatStorage.FLOAT32, ByteOrder.BIG_ENDIAN);
+        array.add(0x01020304);
+        assertEquals(0x01020304, array.get(0));
+        assertEquals((byte) 0x01, array.rawSlice(0, 1).get(ValueLayout.JAVA_BYTE, 0));
+        assertEquals((byte) 0x04, array.rawSlice(0, 1).get(ValueLayout.JAVA_BYTE, 3));
+    }
+
+    @Test
+    void byteSwapKeepsValuesAndFlipsOrder() {
+        ArenaDynArray<Long> longs = new ArenaDynArray<>(Long.class);
+        ArenaDynArray<Integer> ints = new ArenaDynArray<>(Integer.class);
+        ArenaDynArray<Character> chars = new ArenaDynArray<>(Character.class);
+        for (int i = 0; i < 37; i++) {
+            longs.add(0x0102030405060708L * i);
+            ints.add(0x01020304 * i);
+            chars.add((char) (0x0102 * i));
+        }
+        ByteOrder swapped = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        longs.byteSwap();
+        ints.byteSwap();
+        chars.byteSwap();
+        assertEquals(swapped, longs.byteOrder());
+        for (int i = 0; i < 37; i++) {
+            assertEquals(0x0102030405060708L * i, longs.get(i));
+            assertEquals(0x01020304 * i, ints.get(i));
+            assertEquals((char) (0x0102 * i), chars.get(i));
+        }
+        ints.byteSwap();
+        assertEquals(ByteOrder.nativeOrder(), ints.byteOrder());
+        assertEquals(0x01020304 * 36, ints.get(36));
+    }
+
+    @Test
+    void byteSwapHalfPrecisionFloats() {
+        ArenaDynArray<Float> array = new ArenaDynArray<>(Float.class, 4, ArenaDynArray.MemoryManagerType.SHARED,
+                ArenaDynArray.FloatStorage.FLOAT16);
+        array.addFloats(new float[]{1.5f, -2.25f, 0.5f});
+        array.byteSwap();
+        assertArrayEquals(new float[]{1.5f, -2.25f, 0.5f}, array.toFloatArray());
+    }
+
+    @Test
+    void snapshotKeepsByteOrder() throws IOException {
+        Path file = tempDir.resolve("snapshot.bin");
+        ArenaDynArray<Double> array = new ArenaDynArray<>(Double.class, 4, ArenaDynArray.MemoryManagerType.SHARED,
+                ArenaDynArray.FloatStorage.FLOAT32, ByteOrder.BIG_ENDIAN);
+        array.add(2.5);
+        array.add(-1.0);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            array.writeTo(channel);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             ArenaDynArray<Double> restored = ArenaDynArray.readFrom(Double.class, channel)) {
+            assertEquals(ByteOrder.BIG_ENDIAN, restored.byteOrder());
+            assertEquals(-1.0, restored.get(1));
+        }
+    }
+
+    @Test
+    void byteSwapRejectsMappedArrays() {
+        try (ArenaDynArray<Integer> array = ArenaDynArray.mapped(Integer.class, tempDir.resolve("mapped.bin"))) {
+            assertThrows(UnsupportedOperationException.class, array::byteSwap);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaDynArrayDeltaTest {
+
+    @TempDir
+    Path tempDir;
+
+    ArenaDynArray<Integer> createTrackedArray(int count) {
+        ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class);
+        for (int i = 0; i < count; i++) {
+            array.add(i);
+        }
+        array.enableDirtyPageTracking();
+        return array;
+    }
+
+    void writeBase(ArenaDynArray<Integer> array, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            array.writeTo(channel);
+        }
+    }
+
+    @Test
+    void trackingStartsClean() {
+        ArenaDynArray<Integer> array = createTrackedArray(10_000);
+        assertTrue(array.isDirtyPageTrackingEnabled());
+        assertEquals(0, array.dirtyPageCount());
+    }
+
+    @Test
+    void setMarksOnlyTouchedPages() {
+        ArenaDynArray<Integer> array = createTrackedArray(10_000);
+        array.set(0, -1);
+        array.set(1, -2);
+        array.set(9_999, -3);
+        assertEquals(2, array.dirtyPageCount());
+    }
+
+    @Test
+    void removeMarksShiftedRange() {
+        int perPage = ArenaDynArray.DIRTY_PAGE_BYTES / Integer.BYTES;
+        ArenaDynArray<Integer> array = createTrackedArray(perPage * 4);
+        array.remove(perPage * 2);
+        assertEquals(2, array.dirtyPageCount());
+    }
+
+    @Test
+    void writeDeltaWithoutTrackingThrows() throws IOException {
+        ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class);
+        try (FileChannel channel = FileChannel.open(tempDir.resolve("delta.bin"), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            assertThrows(IllegalStateException.class, () -> array.writeDelta(channel));
+        }
+    }
+
+    @Test
+    void writeDeltaWritesOnlyDirtyPagesAndClearsThem() throws IOException {
+        ArenaDynArray<Integer> array = createTrackedArray(100_000);
+        array.set(50_000, -1);
+        Path delta = tempDir.resolve("delta.bin");
+        try (FileChannel channel = FileChannel.open(delta, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            array.writeDelta(channel);
+        }
+        assertEquals(0, array.dirtyPageCount());
+        assertTrue(Files.size(delta) < 2L * ArenaDynArray.DIRTY_PAGE_BYTES);
+    }
+
+    @Test
+    void replayRebuildsFromBaseAndDeltas() throws IOException {
+        ArenaDynArray<Integer> array = createTrackedArray(100_000);
+        Path base = tempDir.resolve("base.bin");
+        Path delta = tempDir.resolve("delta.bin");
+        writeBase(array, base);
+
+        try (FileChannel channel = FileChannel.open(delta, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            array.set(5, -5);
+            array.set(50_000, -50_000);
+            array.writeDelta(channel);
+            array.remove(99_990);
+            array.add(7);
+            array.add(8);
+            array.writeDelta(channel);
+        }
+
+        try (FileChannel baseChannel = FileChannel.open(base, StandardOpenOption.READ);
+             FileChannel deltaChannel = FileChannel.open(delta, StandardOpenOption.READ)) {
+            ArenaDynArray<Integer> restored = ArenaDynArray.replay(Integer.class, baseChannel, List.of(deltaChannel, deltaChannel));
+            assertEquals(array.size(), restored.size());
+            assertArrayEquals(array.toArray(), restored.toArray());
+        }
+    }
+
+    @Test
+    void replayFollowsByteSwap() throws IOException {
+        ArenaDynArray<Integer> array = createTrackedArray(5000);
+        Path base = tempDir.resolve("base.bin");
+        Path delta = tempDir.resolve("delta.bin");
+        writeBase(array, base);
+
+        try (FileChannel channel = FileChannel.open(delta, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            array.byteSwap();
+            array.set(7, -7);
+            array.writeDelta(channel);
+            array.add(5000);
+            array.writeDelta(channel);
+        }
+
+        try (FileChannel baseChannel = FileChannel.open(base, StandardOpenOption.READ);
+             FileChannel deltaChannel = FileChannel.open(delta, StandardOpenOption.READ)) {
+            ArenaDynArray<Integer> restored = ArenaDynArray.replay(Integer.class, baseChannel, List.of(deltaChannel, deltaChannel));
+            assertEquals(array.byteOrder(), restored.byteOrder());
+            assertArrayEquals(array.toArray(), restored.toArray());
+            assertEquals(-7, restored.get(7));
+            assertEquals(4999, restored.get(4999));
+        }
+    }
+
+    @Test
+    void writeToResetsDirtyPages() throws IOException {
+        ArenaDynArray<Integer> array = createTrackedArray(1000);
+        array.set(0, 1);
+        writeBase(array, tempDir.resolve("base.bin"));
+        assertEquals(0, array.dirtyPageCount());
+    }
+}
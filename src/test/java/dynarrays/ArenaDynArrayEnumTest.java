@@ -0,0 +1,128 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaDynArrayEnumTest {
+
+    enum Status { NEW, ACTIVE, SUSPENDED, CLOSED }
+
+    enum Empty { }
+
+    void createArrayWithValues(ArenaDynArray<Status> array, Status... values) {
+        for (Status v : values) array.add(v);
+    }
+
+    @Test
+    void sizeIsZeroOnNewArray() {
+        ArenaDynArray<Status> array = new ArenaDynArray<>(Status.class);
+        assertEquals(0, array.size());
+    }
+
+    @Test
+    void addIncreasesSizeAndStoresValue() {
+        ArenaDynArray<Status> array = new ArenaDynArray<>(Status.class);
+        array.add(Status.ACTIVE);
+        assertEquals(1, array.size());
+        assertEquals(Status.ACTIVE, array.getFirst());
+    }
+
+    @Test
+    void getReturnsCachedConstants() {
+        ArenaDynArray<Status> array = new ArenaDynArray<>(Status.class);
+        createArrayWithValues(array, Status.CLOSED, Status.NEW);
+        assertSame(Status.CLOSED, array.get(0));
+        assertSame(Status.NEW, array.get(1));
+    }
+
+    @Test
+    void setReplacesValueAndReturnsOld() {
+        ArenaDynArray<Status> array = new ArenaDynArray<>(Status.class);
+        array.add(Status.NEW);
+        Status old = array.set(0, Status.SUSPENDED);
+        assertEquals(Status.NEW, old);
+        assertEquals(Status.SUSPENDED, array.getFirst());
+    }
+
+    @Test
+    void setNullElementThrows() {
+        ArenaDynArray<Status> array = new ArenaDynArray<>(Status.class);
+        array.add(Status.NEW);
+        assertThrows(NullPointerException.class, () -> array.set(0, null));
+    }
+
+    @Test
+    void addAtMaxCapacityBoundary() {
+        ArenaDynArray<Status> array = new ArenaDynArray<>(Status.class, 1);
+        createArrayWithValues(array, Status.NEW, Status.ACTIVE, Status.CLOSED);
+        assertEquals(3, array.size());
+        assertEquals(Status.NEW, array.get(0));
+        assertEquals(Status.ACTIVE, array.get(1));
+        assertEquals(Status.CLOSED, array.get(2));
+    }
+
+    @Test
+    void removeAtIndexShiftsElements() {
+        ArenaDynArray<Status> array = new ArenaDynArray<>(Status.class);
+        createArrayWithValues(array, Status.NEW, Status.ACTIVE, Status.CLOSED);
+        assertEquals(Status.ACTIVE, array.remove(1));
+        assertEquals(2, array.size());
+        assertEquals(Status.CLOSED, array.get(1));
+    }
+
+    @Test
+    void containsAndIndexOfWork() {
+        ArenaDynArray<Status> array = new ArenaDynArray<>(Status.class);
+        createArrayWithValues(array, Status.NEW, Status.ACTIVE);
+        assertTrue(array.contains(Status.ACTIVE));
+        assertFalse(array.contains(Status.CLOSED));
+        assertEquals(1, array.indexOf(Status.ACTIVE));
+    }
+
+    @Test
+    void sortUsesComparator() {
+        ArenaDynArray<Status> array = new ArenaDynArray<>(Status.class);
+        createArrayWithValues(array, Status.CLOSED, Status.NEW, Status.SUSPENDED, Status.ACTIVE);
+        array.sort(Comparator.naturalOrder());
+        assertEquals(List.of(Status.NEW, Status.ACTIVE, Status.SUSPENDED, Status.CLOSED), Arrays.asList(array.toArray()));
+    }
+
+    @Test
+    void countReturnsOccurrences() {
+        ArenaDynArray<Status> array = new ArenaDynArray<>(Status.class);
+        createArrayWithValues(array, Status.NEW, Status.ACTIVE, Status.NEW, Status.CLOSED, Status.NEW);
+        assertEquals(3, array.count(Status.NEW));
+        assertEquals(0, array.count(Status.SUSPENDED));
+    }
+
+    @Test
+    void countByOrdinalReturnsHistogram() {
+        ArenaDynArray<Status> array = new ArenaDynArray<>(Status.class);
+        createArrayWithValues(array, Status.NEW, Status.ACTIVE, Status.NEW, Status.CLOSED);
+        assertArrayEquals(new int[]{2, 1, 0, 1}, array.countByOrdinal());
+    }
+
+    @Test
+    void countByOrdinalThrowsOnNonEnumType() {
+        ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class);
+        assertThrows(UnsupportedDynArrayTypeException.class, array::countByOrdinal);
+    }
+
+    @Test
+    void groupCountsSkipsAbsentValues() {
+        ArenaDynArray<Status> array = new ArenaDynArray<>(Status.class);
+        createArrayWithValues(array, Status.CLOSED, Status.NEW, Status.CLOSED);
+        Map<Status, Integer> grouped = array.groupCounts();
+        assertEquals(Map.of(Status.NEW, 1, Status.CLOSED, 2), grouped);
+    }
+
+    @Test
+    void emptyEnumCanBeCreated() {
+        ArenaDynArray<Empty> array = new ArenaDynArray<>(Empty.class);
+        assertTrue(array.isEmpty());
+        assertEquals(0, array.countByOrdinal().length);
+    }
+}
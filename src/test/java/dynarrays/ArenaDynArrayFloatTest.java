@@ -980,4 +980,51 @@ class ArenaDynArrayFloatTest {
         int hash2 = array.hashCode();
         assertEquals(hash1, hash2);
     }
+
+    @Test
+    void float16StorageRoundsToHalfPrecision() {
+        ArenaDynArray<Float> array = new ArenaDynArray<>(Float.class, 8,
+                ArenaDynArray.MemoryManagerType.SHARED, ArenaDynArray.FloatStorage.FLOAT16);
+        createArrayWithValues(array, 1.5f, 0.1f, 65504f);
+        assertEquals(1.5f, array.get(0));
+        assertEquals(Float.float16ToFloat(Float.floatToFloat16(0.1f)), array.getFloat(1));
+        assertEquals(65504f, array.getFloat(2));
+    }
+
+    @Test
+    void bfloat16StorageKeepsFloatRange() {
+        ArenaDynArray<Float> array = new ArenaDynArray<>(Float.class, 8,
+                ArenaDynArray.MemoryManagerType.SHARED, ArenaDynArray.FloatStorage.BFLOAT16);
+        createArrayWithValues(array, -3.25f, 1e30f, Float.NaN);
+        assertEquals(-3.25f, array.getFloat(0));
+        assertEquals(1e30f, array.getFloat(1), 1e28f);
+        assertTrue(Float.isNaN(array.getFloat(2)));
+    }
+
+    @Test
+    void halfStorageSupportsInsertAndRemove() {
+        ArenaDynArray<Float> array = new ArenaDynArray<>(Float.class, 1,
+                ArenaDynArray.MemoryManagerType.SHARED, ArenaDynArray.FloatStorage.FLOAT16);
+        createArrayWithValues(array, 1f, 2f, 3f);
+        array.add(0, 0.5f);
+        array.remove(2);
+        assertArrayEquals(new float[]{0.5f, 1f, 3f}, array.toFloatArray());
+    }
+
+    @Test
+    void addFloatsAndToFloatArrayRoundTrip() {
+        for (ArenaDynArray.FloatStorage storage : ArenaDynArray.FloatStorage.values()) {
+            ArenaDynArray<Float> array = new ArenaDynArray<>(Float.class, 2,
+                    ArenaDynArray.MemoryManagerType.SHARED, storage);
+            array.add(4f);
+            array.addFloats(new float[]{0.25f, -8f, 1024f});
+            assertArrayEquals(new float[]{4f, 0.25f, -8f, 1024f}, array.toFloatArray());
+        }
+    }
+
+    @Test
+    void halfStorageThrowsOnNonFloatType() {
+        assertThrows(UnsupportedDynArrayTypeException.class, () -> new ArenaDynArray<>(Double.class, 8,
+                ArenaDynArray.MemoryManagerType.SHARED, ArenaDynArray.FloatStorage.FLOAT16));
+    }
 }
@@ -0,0 +1,63 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaDynArrayGrowthTest {
+
+    static boolean isZero(MemorySegment bytes) {
+        return bytes.mismatch(MemorySegment.ofArray(new byte[(int) bytes.byteSize()])) == -1;
+    }
+
+    @Test
+    void growthKeepsValuesAndZeroesNewCapacity() {
+        for (ArenaDynArray.MemoryManagerType memoryManager : new ArenaDynArray.MemoryManagerType[]{
+                ArenaDynArray.MemoryManagerType.SHARED, ArenaDynArray.MemoryManagerType.CONFINED, ArenaDynArray.MemoryManagerType.GLOBAL,
+                ArenaDynArray.MemoryManagerType.MALLOC}) {
+            try (ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class, 1, memoryManager)) {
+                for (int i = 0; i < 1000; i++) {
+                    array.add(i);
+                }
+                // capacity is 1024 now; the reserved slots were never written
+                assertTrue(isZero(array.reserveRaw(23)));
+                for (int i = 0; i < 1000; i++) {
+                    assertEquals(i, array.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    void bulkLoadAcrossGrowthKeepsAppendedValues() {
+        try (ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class, 2, ArenaDynArray.MemoryManagerType.MALLOC)) {
+            long[] batch = new long[1000];
+            for (int round = 0; round < 10; round++) {
+                for (int i = 0; i < batch.length; i++) {
+                    batch[i] = round * 1000L + i;
+                }
+                array.appendRaw(MemorySegment.ofArray(batch));
+            }
+            assertEquals(10_000, array.size());
+            for (int i = 0; i < 10_000; i++) {
+                assertEquals(i, array.get(i));
+            }
+            // capacity beyond the appended values is still zeroed
+            assertTrue(isZero(array.reserveRaw(16_384 - 10_001)));
+        }
+    }
+
+    @Test
+    void hybridArraySpillsWithValuesIntact() {
+        try (ArenaDynArray<Integer> array = ArenaDynArray.hybrid(Integer.class, 4)) {
+            for (int i = 0; i < 100; i++) {
+                array.add(i);
+            }
+            assertFalse(array.isInline());
+            assertEquals(99, array.getLast());
+            assertTrue(isZero(array.reserveRaw(20)));
+        }
+    }
+}
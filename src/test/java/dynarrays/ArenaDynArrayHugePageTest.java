@@ -0,0 +1,76 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaDynArrayHugePageTest {
+
+    static final long HUGE_PAGE_LONGS = HugePageAllocator.HUGE_PAGE_BYTES / Long.BYTES;
+
+    @Test
+    void smallArrayFallsBackToNormalMemory() {
+        try (ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class, 8, ArenaDynArray.MemoryManagerType.HUGE_PAGES)) {
+            for (int i = 0; i < 100; i++) {
+                array.add(i);
+            }
+            assertFalse(array.isHugePageBacked());
+            assertEquals(4950, array.stream().mapToInt(Integer::intValue).sum());
+        }
+    }
+
+    @Test
+    void largeArrayIsMappedWithHugePageAlignment() {
+        ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class, HUGE_PAGE_LONGS, ArenaDynArray.MemoryManagerType.HUGE_PAGES);
+        // huge page backing also depends on the kernel accepting the advice, so only the implication is certain
+        assertTrue(!array.isHugePageBacked() || HugePageAllocator.isSupported());
+        for (long i = 0; i < HUGE_PAGE_LONGS + 10; i++) {
+            array.add(i);
+        }
+        assertTrue(!array.isHugePageBacked() || HugePageAllocator.isSupported());
+        assertEquals(0L, array.getAt(0));
+        assertEquals(HUGE_PAGE_LONGS + 9, array.getLast());
+        array.close();
+        assertFalse(array.isHugePageBacked());
+    }
+
+    @Test
+    void growingFromNormalIntoHugePages() {
+        try (ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class, 1, ArenaDynArray.MemoryManagerType.HUGE_PAGES)) {
+            for (long i = 0; i < HUGE_PAGE_LONGS; i++) {
+                array.add(i * 3);
+            }
+            assertTrue(!array.isHugePageBacked() || HugePageAllocator.isSupported());
+            for (long i = 0; i < HUGE_PAGE_LONGS; i += 1021) {
+                assertEquals(i * 3, array.getAt(i));
+            }
+        }
+    }
+
+    @Test
+    void rejectedAdviceIsNotReportedAsHugePages() {
+        if (!HugePageAllocator.isSupported()) return;
+        // no such advice, so madvise fails with EINVAL but the mapping itself is usable
+        HugePageAllocator allocator = new HugePageAllocator(-1);
+        MemorySegment segment = allocator.allocate(HugePageAllocator.HUGE_PAGE_BYTES, Long.BYTES);
+        assertEquals(0, segment.address() % HugePageAllocator.HUGE_PAGE_BYTES);
+        assertFalse(allocator.isHugePageMapping(segment));
+        segment.set(ValueLayout.JAVA_LONG, segment.byteSize() - Long.BYTES, 42L);
+        assertEquals(42L, segment.get(ValueLayout.JAVA_LONG, segment.byteSize() - Long.BYTES));
+        allocator.free(segment);
+    }
+
+    @Test
+    void freedMappingCannotBeAccessed() {
+        if (!HugePageAllocator.isSupported()) return;
+        MemorySegment segment = HugePageAllocator.INSTANCE.allocate(HugePageAllocator.HUGE_PAGE_BYTES, Long.BYTES);
+        segment.set(ValueLayout.JAVA_LONG, 0, 7L);
+        HugePageAllocator.INSTANCE.free(segment);
+        assertFalse(segment.scope().isAlive());
+        assertFalse(HugePageAllocator.INSTANCE.isHugePageMapping(segment));
+        assertThrows(IllegalStateException.class, () -> segment.get(ValueLayout.JAVA_LONG, 0));
+    }
+}
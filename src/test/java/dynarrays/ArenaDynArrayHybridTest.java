@@ -0,0 +1,81 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaDynArrayHybridTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void smallArrayStaysOnHeap() {
+        ArenaDynArray<Long> array = ArenaDynArray.hybrid(Long.class);
+        for (long i = 0; i < 16; i++) {
+            array.add(i * 10);
+        }
+        assertTrue(array.isInline());
+        assertEquals(150L, array.get(15));
+        array.sort(Comparator.reverseOrder());
+        assertEquals(150L, array.get(0));
+        array.close();
+    }
+
+    @Test
+    void growingPastThresholdSpillsOffHeap() {
+        ArenaDynArray<Double> array = ArenaDynArray.hybrid(Double.class, 4);
+        for (int i = 0; i < 100; i++) {
+            array.add(i / 2.0);
+        }
+        assertFalse(array.isInline());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i / 2.0, array.get(i));
+        }
+        array.close();
+    }
+
+    @Test
+    void everyElementTypeWorksInline() {
+        ArenaDynArray<Character> chars = ArenaDynArray.hybrid(Character.class, 3);
+        chars.add('a');
+        chars.add('z');
+        assertEquals('z', chars.get(1));
+        ArenaDynArray<Boolean> booleans = ArenaDynArray.hybrid(Boolean.class, 3);
+        booleans.add(true);
+        assertTrue(booleans.get(0));
+        ArenaDynArray<Integer> ints = ArenaDynArray.hybrid(Integer.class, 3);
+        ints.add(7);
+        ints.add(0, 6);
+        assertEquals(6, ints.get(0));
+        assertEquals(7, ints.get(1));
+    }
+
+    @Test
+    void inlineArraySnapshotsLikeNativeArray() throws IOException {
+        Path file = tempDir.resolve("snapshot.bin");
+        ArenaDynArray<Integer> array = ArenaDynArray.hybrid(Integer.class);
+        array.add(1);
+        array.add(2);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            array.writeTo(channel);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ArenaDynArray<Integer> restored = ArenaDynArray.readFrom(Integer.class, channel);
+            assertEquals(2, restored.get(1));
+        }
+    }
+
+    @Test
+    void defaultArraysAreNotInline() {
+        assertFalse(new ArenaDynArray<>(Integer.class).isInline());
+        assertThrows(IllegalArgumentException.class, () -> ArenaDynArray.hybrid(Integer.class, 0));
+    }
+}
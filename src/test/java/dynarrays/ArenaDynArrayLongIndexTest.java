@@ -0,0 +1,63 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaDynArrayLongIndexTest {
+
+    ArenaDynArray<Integer> sequence(int count) {
+        ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class);
+        for (int i = 0; i < count; i++) {
+            array.add(i);
+        }
+        return array;
+    }
+
+    @Test
+    void longAccessorsMatchListAccessors() {
+        ArenaDynArray<Integer> array = sequence(100);
+        assertEquals(100L, array.longSize());
+        assertEquals(array.get(42), array.getAt(42L));
+        assertEquals(5, array.setAt(5L, 500));
+        assertEquals(500, array.get(5));
+        assertEquals(99, array.removeAt(99L));
+        assertEquals(99L, array.longSize());
+    }
+
+    @Test
+    void longAccessorsCheckBounds() {
+        ArenaDynArray<Integer> array = sequence(3);
+        assertThrows(IndexOutOfBoundsException.class, () -> array.getAt(3L));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.setAt(-1L, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.getAt(1L << 32));
+    }
+
+    @Test
+    void fillSetsOnlyTheRange() {
+        ArenaDynArray<Integer> array = sequence(100);
+        array.fill(10, 90, 7);
+        assertEquals(9, array.get(9));
+        assertEquals(7, array.get(10));
+        assertEquals(7, array.get(89));
+        assertEquals(90, array.get(90));
+        assertEquals(81, array.count(7));
+    }
+
+    @Test
+    void removeRangeShiftsTail() {
+        ArenaDynArray<Integer> array = sequence(100);
+        array.removeRange(10, 90);
+        assertEquals(20, array.size());
+        assertEquals(9, array.get(9));
+        assertEquals(90, array.get(10));
+        assertEquals(99, array.getLast());
+    }
+
+    @Test
+    void rangeOperationsRejectInvalidRanges() {
+        ArenaDynArray<Integer> array = sequence(10);
+        assertThrows(IndexOutOfBoundsException.class, () -> array.fill(2, 11, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.removeRange(5, 4));
+    }
+}
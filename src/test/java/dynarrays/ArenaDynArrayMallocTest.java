@@ -0,0 +1,61 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaDynArrayMallocTest {
+
+    @Test
+    void growthKeepsValues() {
+        try (ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class, 1, ArenaDynArray.MemoryManagerType.MALLOC)) {
+            for (long i = 0; i < 1_000_000; i++) {
+                array.add(i * 7);
+            }
+            assertEquals(1_000_000, array.size());
+            for (long i = 0; i < 1_000_000; i += 997) {
+                assertEquals(i * 7, array.getAt(i));
+            }
+        }
+    }
+
+    @Test
+    void grownCapacityIsZeroed() {
+        try (ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class, 4, ArenaDynArray.MemoryManagerType.MALLOC)) {
+            for (int i = 0; i < 5; i++) {
+                array.add(-1);
+            }
+            // realloc leaves the grown bytes undefined; they must read as zero like arena memory
+            assertEquals(-1L, array.reserveRaw(3).mismatch(MemorySegment.ofArray(new byte[3 * Integer.BYTES])));
+            assertEquals(0, array.get(7));
+        }
+    }
+
+    @Test
+    void closedArrayCanNoLongerBeRead() {
+        ArenaDynArray<Double> array = new ArenaDynArray<>(Double.class, 16, ArenaDynArray.MemoryManagerType.MALLOC);
+        array.add(1.5);
+        array.close();
+        assertEquals(0, array.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> array.get(0));
+    }
+
+    @Test
+    void reallocatedBlockKeepsContentsAndZeroesOnlyWhatIsNotOverwritten() {
+        MemorySegment block = MallocAllocator.INSTANCE.allocate(64, Long.BYTES);
+        block.set(ValueLayout.JAVA_LONG, 56, 9L);
+        MemorySegment grown = MallocAllocator.INSTANCE.reallocate(block, 1 << 20, Long.BYTES, 128);
+        assertEquals(1 << 20, grown.byteSize());
+        assertEquals(9L, grown.get(ValueLayout.JAVA_LONG, 56));
+        assertEquals(-1L, grown.asSlice(128).mismatch(MemorySegment.ofArray(new byte[(1 << 20) - 128])));
+        MallocAllocator.INSTANCE.free(grown);
+    }
+
+    @Test
+    void overAlignedRequestsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> MallocAllocator.INSTANCE.allocate(64, 64));
+    }
+}
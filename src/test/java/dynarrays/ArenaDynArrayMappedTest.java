@@ -0,0 +1,187 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaDynArrayMappedTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void newFileStartsEmpty() {
+        try (ArenaDynArray<Long> array = ArenaDynArray.mapped(Long.class, tempDir.resolve("values.bin"))) {
+            assertTrue(array.isMapped());
+            assertEquals(0, array.size());
+        }
+    }
+
+    @Test
+    void growthExtendsFile() throws IOException {
+        Path file = tempDir.resolve("values.bin");
+        try (ArenaDynArray<Long> array = ArenaDynArray.mapped(Long.class, file, 1)) {
+            for (long i = 0; i < 100; i++) {
+                array.add(i);
+            }
+            assertEquals(100, array.size());
+            assertEquals(99L, array.getLast());
+        }
+        assertTrue(Files.size(file) >= 100 * Long.BYTES);
+    }
+
+    @Test
+    void growthUnmapsPreviousMapping() {
+        try (ArenaDynArray<Long> array = ArenaDynArray.mapped(Long.class, tempDir.resolve("values.bin"), 2)) {
+            array.add(1L);
+            MemorySegment before = array.rawSlice(0, 1);
+            array.add(2L);
+            array.add(3L);
+            assertFalse(before.scope().isAlive());
+            assertEquals(1L, array.getFirst());
+            assertEquals(3L, array.getLast());
+        }
+    }
+
+    @Test
+    void reopenRestoresValues() {
+        Path file = tempDir.resolve("values.bin");
+        try (ArenaDynArray<Double> array = ArenaDynArray.mapped(Double.class, file)) {
+            array.add(1.5);
+            array.add(2.5);
+            array.add(0, 0.5);
+        }
+        try (ArenaDynArray<Double> array = ArenaDynArray.mapped(Double.class, file)) {
+            assertEquals(3, array.size());
+            assertEquals(0.5, array.get(0));
+            assertEquals(2.5, array.get(2));
+        }
+    }
+
+    @Test
+    void forcePersistsSizeWithoutClose() {
+        Path file = tempDir.resolve("values.bin");
+        ArenaDynArray<Integer> writer = ArenaDynArray.mapped(Integer.class, file);
+        writer.add(7);
+        writer.force();
+        try (ArenaDynArray<Integer> reader = ArenaDynArray.mapped(Integer.class, file)) {
+            assertEquals(1, reader.size());
+            assertEquals(7, reader.getFirst());
+        }
+        writer.close();
+    }
+
+    @Test
+    void reopenWithDifferentElementSizeThrows() {
+        Path file = tempDir.resolve("values.bin");
+        try (ArenaDynArray<Long> array = ArenaDynArray.mapped(Long.class, file)) {
+            array.add(1L);
+        }
+        assertThrows(UnsupportedDynArrayTypeException.class, () -> ArenaDynArray.mapped(Integer.class, file));
+    }
+
+    @Test
+    void reopenWithDifferentTypeOfSameSizeThrows() {
+        Path file = tempDir.resolve("values.bin");
+        try (ArenaDynArray<Long> array = ArenaDynArray.mapped(Long.class, file)) {
+            array.add(1L);
+        }
+        assertThrows(UnsupportedDynArrayTypeException.class, () -> ArenaDynArray.mapped(Double.class, file));
+    }
+
+    @Test
+    void corruptSizeIsClampedToCapacity() throws IOException {
+        Path file = tempDir.resolve("values.bin");
+        try (ArenaDynArray<Long> array = ArenaDynArray.mapped(Long.class, file, 8)) {
+            array.add(1L);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).order(ByteOrder.nativeOrder()).putLong(0, Long.MAX_VALUE), 8);
+        }
+        long capacity = (Files.size(file) - 64) / Long.BYTES;
+        try (ArenaDynArray<Long> array = ArenaDynArray.mapped(Long.class, file)) {
+            assertEquals(capacity, array.size());
+            assertEquals(1L, array.getFirst());
+        }
+    }
+
+    @Test
+    void openingForeignFileThrows() throws IOException {
+        Path file = tempDir.resolve("foreign.bin");
+        Files.write(file, new byte[128]);
+        assertThrows(IllegalStateException.class, () -> ArenaDynArray.mapped(Long.class, file));
+    }
+
+    @Test
+    void forceOnAnonymousArrayIsNoop() {
+        try (ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class)) {
+            assertFalse(array.isMapped());
+            assertDoesNotThrow(array::force);
+        }
+    }
+
+    @Test
+    void attachedReaderSeesPublishedValues() {
+        Path file = tempDir.resolve("shared.bin");
+        try (ArenaDynArray<Integer> writer = ArenaDynArray.mapped(Integer.class, file, 2)) {
+            writer.add(1);
+            writer.add(2);
+            try (ArenaDynArray<Integer> reader = ArenaDynArray.attach(Integer.class, file)) {
+                assertTrue(reader.isReadOnly());
+                assertEquals(2, reader.size());
+                assertEquals(2, reader.get(1));
+            }
+        }
+    }
+
+    @Test
+    void refreshFollowsWriterGrowth() {
+        Path file = tempDir.resolve("shared.bin");
+        try (ArenaDynArray<Integer> writer = ArenaDynArray.mapped(Integer.class, file, 2);
+             ArenaDynArray<Integer> reader = attachAfterFirstAdd(writer, file)) {
+            for (int i = 0; i < 100; i++) {
+                writer.add(i);
+            }
+            assertEquals(1, reader.size());
+            MemorySegment before = reader.rawSlice(0, 1);
+            reader.refresh();
+            assertFalse(before.scope().isAlive());
+            assertEquals(101, reader.size());
+            assertEquals(99, reader.getLast());
+        }
+    }
+
+    ArenaDynArray<Integer> attachAfterFirstAdd(ArenaDynArray<Integer> writer, Path file) {
+        writer.add(-1);
+        return ArenaDynArray.attach(Integer.class, file);
+    }
+
+    @Test
+    void attachedReaderRejectsWrites() {
+        Path file = tempDir.resolve("shared.bin");
+        try (ArenaDynArray<Integer> writer = ArenaDynArray.mapped(Integer.class, file)) {
+            writer.add(1);
+            try (ArenaDynArray<Integer> reader = ArenaDynArray.attach(Integer.class, file)) {
+                assertThrows(UnsupportedOperationException.class, () -> reader.add(2));
+                assertThrows(UnsupportedOperationException.class, () -> reader.set(0, 2));
+                assertThrows(UnsupportedOperationException.class, reader::clear);
+                assertEquals(1, reader.size());
+            }
+        }
+    }
+
+    @Test
+    void attachToMissingFileThrows() {
+        assertThrows(java.io.UncheckedIOException.class, () -> ArenaDynArray.attach(Integer.class, tempDir.resolve("missing.bin")));
+    }
+}
@@ -0,0 +1,103 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.Arena;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaDynArrayScopeTest {
+
+    @Test
+    void arraysInScopeWorkAndGrow() {
+        try (ArenaDynArray.Scope scope = new ArenaDynArray.Scope()) {
+            ArenaDynArray<Integer> ints = scope.newArray(Integer.class);
+            ArenaDynArray<Double> doubles = scope.newArray(Double.class, 2);
+            for (int i = 0; i < 1000; i++) {
+                ints.add(i);
+                doubles.add(i / 4.0);
+            }
+            assertEquals(999, ints.getLast());
+            assertEquals(249.75, doubles.get(999));
+        }
+    }
+
+    @Test
+    void arraysOfSharedScopeGrowConcurrently() throws InterruptedException {
+        try (ArenaDynArray.Scope scope = new ArenaDynArray.Scope(ArenaDynArray.MemoryManagerType.SHARED, 1 << 12)) {
+            List<ArenaDynArray<Long>> arrays = new ArrayList<>();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                ArenaDynArray<Long> array = scope.newArray(Long.class, 1);
+                long tag = t;
+                arrays.add(array);
+                threads.add(new Thread(() -> {
+                    for (long i = 0; i < 10_000; i++) {
+                        array.add(tag * 1_000_000 + i);
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            // overlapping bump allocations would have let the arrays overwrite each other
+            for (int t = 0; t < arrays.size(); t++) {
+                for (long i = 0; i < 10_000; i++) {
+                    assertEquals(t * 1_000_000L + i, arrays.get(t).getAt(i));
+                }
+            }
+            assertTrue(scope.usedBytes() <= scope.reservedBytes());
+        }
+    }
+
+    @Test
+    void resetReleasesArraysAndReusesChunks() {
+        try (ArenaDynArray.Scope scope = new ArenaDynArray.Scope(ArenaDynArray.MemoryManagerType.CONFINED, 1 << 16)) {
+            for (int request = 0; request < 100; request++) {
+                ArenaDynArray<Long> scratch = scope.newArray(Long.class);
+                for (long i = 0; i < 100; i++) {
+                    scratch.add(i);
+                }
+                assertEquals(99L, scratch.getLast());
+                scope.reset();
+                assertTrue(scratch.isEmpty());
+            }
+            assertEquals(1 << 16, scope.reservedBytes());
+            assertEquals(0, scope.usedBytes());
+        }
+    }
+
+    @Test
+    void memoryIsZeroedAfterReset() {
+        try (ArenaDynArray.Scope scope = new ArenaDynArray.Scope()) {
+            ArenaDynArray<Integer> first = scope.newArray(Integer.class, 4);
+            for (int i = 0; i < 3; i++) {
+                first.add(-1);
+            }
+            scope.reset();
+            ArenaDynArray<Integer> second = scope.newArray(Integer.class, 4);
+            assertEquals(0, second.reserveRaw(3).get(java.lang.foreign.ValueLayout.JAVA_INT, 0));
+        }
+    }
+
+    @Test
+    void callerSuppliedArenaStaysOpen() {
+        try (Arena arena = Arena.ofConfined()) {
+            ArenaDynArray<Character> chars = new ArenaDynArray<>(Character.class, 2, arena);
+            chars.add('x');
+            chars.add('y');
+            chars.add('z');
+            assertEquals('z', chars.get(2));
+            chars.close();
+            assertTrue(arena.scope().isAlive());
+        }
+    }
+
+    @Test
+    void globalScopeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ArenaDynArray.Scope(ArenaDynArray.MemoryManagerType.GLOBAL, 1024));
+    }
+}
@@ -0,0 +1,115 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaDynArraySnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    FileChannel openForWrite(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    FileChannel openForRead(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    @Test
+    void roundTripRestoresValues() throws IOException {
+        Path file = tempDir.resolve("snapshot.bin");
+        ArenaDynArray<Double> array = new ArenaDynArray<>(Double.class);
+        for (int i = 0; i < 1000; i++) {
+            array.add(i / 3.0);
+        }
+        try (FileChannel channel = openForWrite(file)) {
+            array.writeTo(channel);
+        }
+        try (FileChannel channel = openForRead(file);
+             ArenaDynArray<Double> restored = ArenaDynArray.readFrom(Double.class, channel)) {
+            assertEquals(1000, restored.size());
+            assertEquals(array.get(999), restored.get(999));
+            restored.add(1.0);
+            assertEquals(1001, restored.size());
+        }
+    }
+
+    @Test
+    void roundTripEmptyArray() throws IOException {
+        Path file = tempDir.resolve("snapshot.bin");
+        try (FileChannel channel = openForWrite(file)) {
+            new ArenaDynArray<>(Integer.class).writeTo(channel);
+        }
+        try (FileChannel channel = openForRead(file)) {
+            assertTrue(ArenaDynArray.readFrom(Integer.class, channel).isEmpty());
+        }
+    }
+
+    @Test
+    void consecutiveSnapshotsShareOneChannel() throws IOException {
+        Path file = tempDir.resolve("snapshot.bin");
+        ArenaDynArray<Long> first = new ArenaDynArray<>(Long.class);
+        first.add(1L);
+        ArenaDynArray<Character> second = new ArenaDynArray<>(Character.class);
+        second.add('x');
+        try (FileChannel channel = openForWrite(file)) {
+            first.writeTo(channel);
+            second.writeTo(channel);
+        }
+        try (FileChannel channel = openForRead(file)) {
+            assertEquals(1L, ArenaDynArray.readFrom(Long.class, channel).getFirst());
+            assertEquals('x', ArenaDynArray.readFrom(Character.class, channel).getFirst());
+        }
+    }
+
+    @Test
+    void readWithDifferentTypeThrows() throws IOException {
+        Path file = tempDir.resolve("snapshot.bin");
+        ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class);
+        array.add(1L);
+        try (FileChannel channel = openForWrite(file)) {
+            array.writeTo(channel);
+        }
+        try (FileChannel channel = openForRead(file)) {
+            assertThrows(UnsupportedDynArrayTypeException.class, () -> ArenaDynArray.readFrom(Double.class, channel));
+        }
+    }
+
+    @Test
+    void corruptedDataFailsChecksum() throws IOException {
+        Path file = tempDir.resolve("snapshot.bin");
+        ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class);
+        array.add(1);
+        array.add(2);
+        try (FileChannel channel = openForWrite(file)) {
+            array.writeTo(channel);
+            channel.write(ByteBuffer.wrap(new byte[]{42}), 64);
+        }
+        try (FileChannel channel = openForRead(file)) {
+            assertThrows(IllegalStateException.class, () -> ArenaDynArray.readFrom(Integer.class, channel));
+        }
+    }
+
+    @Test
+    void truncatedSnapshotThrows() throws IOException {
+        Path file = tempDir.resolve("snapshot.bin");
+        ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class);
+        array.add(1);
+        try (FileChannel channel = openForWrite(file)) {
+            array.writeTo(channel);
+            channel.truncate(66);
+        }
+        try (FileChannel channel = openForRead(file)) {
+            assertThrows(IllegalStateException.class, () -> ArenaDynArray.readFrom(Integer.class, channel));
+        }
+    }
+}
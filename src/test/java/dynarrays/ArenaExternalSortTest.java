@@ -0,0 +1,124 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaExternalSortTest {
+
+    @TempDir
+    Path tempDir;
+
+    ArenaDynArray<Long> randomLongs(int count) {
+        Random random = new Random(42);
+        ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class);
+        for (int i = 0; i < count; i++) {
+            array.add(random.nextLong(1_000_000));
+        }
+        return array;
+    }
+
+    @Test
+    void sortsAcrossManyRuns() throws IOException {
+        ArenaDynArray<Long> source = randomLongs(10_000);
+        ArenaExternalSort sorter = new ArenaExternalSort(512 * Long.BYTES, tempDir);
+        try (ArenaDynArray<Long> sorted = sorter.sort(source, Comparator.naturalOrder())) {
+            assertEquals(source.size(), sorted.size());
+            for (int i = 1; i < sorted.size(); i++) {
+                assertTrue(sorted.get(i - 1) <= sorted.get(i));
+            }
+        }
+        try (Stream<Path> leftovers = Files.list(tempDir)) {
+            assertEquals(0, leftovers.count());
+        }
+    }
+
+    @Test
+    void sortFittingTheBudgetNeedsNoRunFiles() throws IOException {
+        ArenaDynArray<Long> source = randomLongs(100);
+        ArenaExternalSort sorter = new ArenaExternalSort(1 << 20, tempDir);
+        try (ArenaDynArray<Long> sorted = sorter.sort(source, Comparator.reverseOrder())) {
+            for (int i = 1; i < sorted.size(); i++) {
+                assertTrue(sorted.get(i - 1) >= sorted.get(i));
+            }
+        }
+        assertEquals(100, source.size());
+        try (Stream<Path> leftovers = Files.list(tempDir)) {
+            assertEquals(0, leftovers.count());
+        }
+    }
+
+    @Test
+    void sortedAndRepetitiveRunsDoNotDegrade() {
+        ArenaDynArray<Long> ascending = new ArenaDynArray<>(Long.class);
+        ArenaDynArray<Long> duplicates = new ArenaDynArray<>(Long.class);
+        for (long i = 0; i < 200_000; i++) {
+            ascending.add(i);
+            duplicates.add(i % 3);
+        }
+        ArenaExternalSort sorter = new ArenaExternalSort(100_000 * Long.BYTES, tempDir);
+        try (ArenaDynArray<Long> sorted = sorter.sort(ascending, Comparator.reverseOrder())) {
+            assertEquals(199_999L, sorted.getFirst());
+            assertEquals(0L, sorted.getLast());
+        }
+        try (ArenaDynArray<Long> sorted = sorter.sort(duplicates, Comparator.naturalOrder())) {
+            assertEquals(0L, sorted.get(66_666));
+            assertEquals(1L, sorted.get(66_667));
+            assertEquals(2L, sorted.getLast());
+        }
+    }
+
+    @Test
+    void scratchStaysWithinTheMemoryBudget() {
+        ArenaDynArray<Long> source = randomLongs(10_000);
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long before = budget.getLiveBytes();
+        budget.resetPeak();
+        ArenaExternalSort sorter = new ArenaExternalSort(1000 * Long.BYTES, tempDir);
+        try (ArenaDynArray<Long> sorted = sorter.sortToFile(source, Comparator.naturalOrder(), tempDir.resolve("sorted.bin"))) {
+            assertEquals(10_000, sorted.size());
+        }
+        // the scratch run plus its one spare slot; the output is mapped and not charged
+        assertEquals(before + 1001 * Long.BYTES, budget.getPeakBytes());
+        try (ArenaDynArray<Long> sorted = sorter.sort(source, Comparator.naturalOrder())) {
+            assertEquals(before + 10_001 * Long.BYTES, budget.getLiveBytes());
+        }
+    }
+
+    @Test
+    void sortToFileWritesMappedOutput() {
+        ArenaDynArray<Integer> source = new ArenaDynArray<>(Integer.class);
+        for (int i = 0; i < 3000; i++) {
+            source.add((i * 7919) % 3000);
+        }
+        Path output = tempDir.resolve("sorted.bin");
+        ArenaExternalSort sorter = new ArenaExternalSort(1000, tempDir);
+        sorter.sortToFile(source, Comparator.naturalOrder(), output).close();
+        try (ArenaDynArray<Integer> sorted = ArenaDynArray.mapped(Integer.class, output)) {
+            assertEquals(3000, sorted.size());
+            for (int i = 0; i < 3000; i++) {
+                assertEquals(i, sorted.get(i));
+            }
+        }
+    }
+
+    @Test
+    void emptySourceSortsToEmptyArray() {
+        ArenaExternalSort sorter = new ArenaExternalSort(64, tempDir);
+        assertTrue(sorter.sort(new ArenaDynArray<>(Double.class), Comparator.naturalOrder()).isEmpty());
+    }
+
+    @Test
+    void budgetSmallerThanAnElementIsRejected() {
+        ArenaExternalSort sorter = new ArenaExternalSort(4, tempDir);
+        assertThrows(IllegalArgumentException.class, () -> sorter.sort(randomLongs(10), Comparator.naturalOrder()));
+    }
+}
@@ -0,0 +1,212 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.foreign.Arena;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaMemoryBudgetTest {
+
+    @Test
+    void tracksLivePeakAndTypes() {
+        ArenaMemoryBudget budget = new ArenaMemoryBudget();
+        budget.reserve("Integer", 100);
+        budget.reserve("Double", 50);
+        budget.release("Integer", 100);
+        assertEquals(50, budget.getLiveBytes());
+        assertEquals(150, budget.getPeakBytes());
+        assertEquals(50L, budget.getLiveBytesByType().get("Double"));
+        assertFalse(budget.getLiveBytesByType().containsKey("Integer"));
+        budget.resetPeak();
+        assertEquals(50, budget.getPeakBytes());
+    }
+
+    @Test
+    void failPolicyRejectsAllocationsOverTheLimit() {
+        ArenaMemoryBudget budget = new ArenaMemoryBudget();
+        budget.setLimitBytes(100);
+        budget.reserve("Long", 80);
+        assertThrows(MemoryBudgetExceededException.class, () -> budget.reserve("Long", 21));
+        assertEquals(80, budget.getLiveBytes());
+        assertEquals(1, budget.getRejectedCount());
+        budget.reserve("Long", 20);
+        assertEquals(100, budget.getLiveBytes());
+    }
+
+    @Test
+    void spillPolicyAsksHandlerToReleaseTheExcess() {
+        ArenaMemoryBudget budget = new ArenaMemoryBudget();
+        budget.setLimitBytes(100);
+        budget.setPolicy(ArenaMemoryBudget.Policy.SPILL);
+        AtomicLong requested = new AtomicLong();
+        budget.setSpillHandler(excess -> {
+            requested.set(excess);
+            budget.release("Long", 60);
+        });
+        budget.reserve("Long", 90);
+        budget.reserve("Long", 40);
+        assertEquals(30, requested.get());
+        assertEquals(70, budget.getLiveBytes());
+        budget.setSpillHandler(excess -> {});
+        assertThrows(MemoryBudgetExceededException.class, () -> budget.reserve("Long", 40));
+    }
+
+    @Test
+    void blockPolicyWaitsForRelease() throws InterruptedException {
+        ArenaMemoryBudget budget = new ArenaMemoryBudget();
+        budget.setLimitBytes(100);
+        budget.setPolicy(ArenaMemoryBudget.Policy.BLOCK);
+        budget.reserve("Integer", 100);
+        CountDownLatch started = new CountDownLatch(1);
+        Thread releaser = new Thread(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            }
+            budget.release("Integer", 100);
+        });
+        releaser.start();
+        started.await();
+        budget.reserve("Integer", 60);
+        releaser.join();
+        assertEquals(60, budget.getLiveBytes());
+
+        budget.setBlockTimeoutMillis(10);
+        assertThrows(MemoryBudgetExceededException.class, () -> budget.reserve("Integer", 60));
+    }
+
+    @Test
+    void arraysAreAccountedUntilClosed() {
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long before = budget.getLiveBytes();
+        try (ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class, 8)) {
+            assertEquals(before + 8 * Long.BYTES, budget.getLiveBytes());
+            for (long i = 0; i < 8; i++) {
+                array.add(i);
+            }
+            // arena owned arrays keep the old buffer until the arena closes
+            assertEquals(before + 24 * Long.BYTES, budget.getLiveBytes());
+        }
+        assertEquals(before, budget.getLiveBytes());
+
+        try (ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class, 8, ArenaDynArray.MemoryManagerType.MALLOC)) {
+            for (long i = 0; i < 8; i++) {
+                array.add(i);
+            }
+            assertEquals(before + 16 * Long.BYTES, budget.getLiveBytes());
+        }
+        assertEquals(before, budget.getLiveBytes());
+
+        try (ArenaDynArray<Integer> array = ArenaDynArray.hybrid(Integer.class, 4)) {
+            array.add(1);
+            assertEquals(before, budget.getLiveBytes());
+        }
+    }
+
+    @Test
+    void scopeChunksAreChargedUntilTheScopeCloses() {
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long before = budget.getLiveBytes();
+        ArenaDynArray.Scope scope = new ArenaDynArray.Scope(ArenaDynArray.MemoryManagerType.CONFINED, 1024);
+        ArenaDynArray<Long> array = scope.newArray(Long.class, 8);
+        for (long i = 0; i < 1000; i++) {
+            array.add(i);
+        }
+        long held = scope.reservedBytes();
+        assertEquals(before + held, budget.getLiveBytes());
+        // closing an array does not give its chunk space back, only reset() or close() of the scope reuse it
+        array.close();
+        scope.reset();
+        assertEquals(before + held, budget.getLiveBytes());
+        scope.close();
+        assertEquals(before, budget.getLiveBytes());
+    }
+
+    @Test
+    void callerArenaIsChargedUntilItCloses() {
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long before = budget.getLiveBytes();
+        try (Arena arena = Arena.ofConfined()) {
+            ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class, 4, arena);
+            for (int i = 0; i < 4; i++) {
+                array.add(i);
+            }
+            // the old block stays in the arena after growth, and the array closing does not free either
+            array.close();
+            assertEquals(before + 12 * Integer.BYTES, budget.getLiveBytes());
+        }
+        assertEquals(before, budget.getLiveBytes());
+    }
+
+    @Test
+    void slabPoolIsChargedBySlab() {
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long before = budget.getLiveBytes();
+        ArenaSlabPool pool = new ArenaSlabPool(4096, 1024);
+        ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class, 4, pool);
+        array.add(1);
+        array.close();
+        assertEquals(before + pool.reservedBytes(), budget.getLiveBytes());
+        pool.close();
+        assertEquals(before, budget.getLiveBytes());
+    }
+
+    @Test
+    void oversizedPoolBlockIsReleasedWhenFreed() {
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long before = budget.getLiveBytes();
+        try (ArenaSlabPool pool = new ArenaSlabPool(4096, 1024)) {
+            ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class, 1024, pool);
+            assertEquals(before + 1024 * Long.BYTES, budget.getLiveBytes());
+            array.close();
+            assertEquals(before, budget.getLiveBytes());
+        }
+    }
+
+    @Test
+    void automaticCallerArenaIsReleasedOnceCollected() throws InterruptedException {
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long before = budget.getLiveBytes();
+        new ArenaDynArray<>(Long.class, 1024, Arena.ofAuto()).add(1L);
+        assertTrue(budget.getLiveBytes() > before);
+        // the budget must not keep the arena reachable, or it would never be collected
+        for (int attempt = 0; attempt < 100 && budget.getLiveBytes() > before; attempt++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(before, budget.getLiveBytes());
+    }
+
+    @Test
+    void arrayOverTheGlobalLimitFails() {
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long previousLimit = budget.getLimitBytes();
+        budget.setLimitBytes(budget.getLiveBytes() + 1024);
+        try (ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class, 64)) {
+            assertThrows(MemoryBudgetExceededException.class, () -> {
+                for (long i = 0; i < 128; i++) {
+                    array.add(i);
+                }
+            });
+            // the failed growth leaves the array as it was before the rejected add
+            assertEquals(63, array.size());
+            assertEquals(62L, array.getLast());
+        } finally {
+            budget.setLimitBytes(previousLimit);
+        }
+    }
+
+    @Test
+    void globalBudgetIsRegisteredAsMBean() throws Exception {
+        ObjectName name = ArenaMemoryBudget.global().registerMBean();
+        assertEquals(ArenaMemoryBudget.global().getLiveBytes(),
+                (Long) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "LiveBytes"));
+    }
+}
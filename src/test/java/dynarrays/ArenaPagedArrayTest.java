@@ -0,0 +1,110 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaPagedArrayTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void valuesSurviveEviction() {
+        try (ArenaPagedArray<Long> array = new ArenaPagedArray<>(Long.class, tempDir.resolve("spill"), 16, 4)) {
+            for (long i = 0; i < 1000; i++) {
+                array.add(i * 3);
+            }
+            assertEquals(1000, array.size());
+            assertEquals(4, array.cachedPageCount());
+            assertTrue(array.evictionCount() > 0);
+            for (long i = 0; i < 1000; i++) {
+                assertEquals(i * 3, array.get(i));
+            }
+        }
+    }
+
+    @Test
+    void cachedPagesBoundNativeMemory() {
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long before = budget.getLiveBytes();
+        try (ArenaPagedArray<Long> array = new ArenaPagedArray<>(Long.class, tempDir.resolve("spill"), 1024, 4)) {
+            for (long i = 0; i < 16 * 1024; i++) {
+                array.add(i);
+            }
+            assertEquals(4, array.cachedPageCount());
+            // one spare element per frame, no doubled or abandoned buffers
+            assertEquals(before + 4 * 1025 * Long.BYTES, budget.getLiveBytes());
+        }
+        assertEquals(before, budget.getLiveBytes());
+    }
+
+    @Test
+    void setReturnsOldValueAndIsWrittenBack() {
+        try (ArenaPagedArray<Integer> array = new ArenaPagedArray<>(Integer.class, tempDir.resolve("spill"), 8, 2)) {
+            for (int i = 0; i < 64; i++) {
+                array.add(i);
+            }
+            assertEquals(5, array.set(5, 500));
+            array.get(40);
+            array.get(60);
+            assertTrue(array.writeBackCount() > 0);
+            assertEquals(500, array.get(5));
+        }
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        try (ArenaPagedArray<Double> array = new ArenaPagedArray<>(Double.class, tempDir.resolve("spill"), 4, 2)) {
+            for (int i = 0; i < 16; i++) {
+                array.add((double) i);
+            }
+            array.resetCounters();
+            array.get(0);
+            array.get(1);
+            array.get(5);
+            assertEquals(1, array.hitCount());
+            assertEquals(2, array.missCount());
+        }
+    }
+
+    @Test
+    void hotPagesStayCached() {
+        try (ArenaPagedArray<Integer> array = new ArenaPagedArray<>(Integer.class, tempDir.resolve("spill"), 4, 4)) {
+            for (int i = 0; i < 400; i++) {
+                array.add(i);
+            }
+            array.resetCounters();
+            for (int round = 0; round < 50; round++) {
+                array.get(0);
+                array.get(4);
+                array.get(4L * (2 + round));
+            }
+            assertTrue(array.hitCount() > array.missCount());
+        }
+    }
+
+    @Test
+    void outOfBoundsIndexThrows() {
+        try (ArenaPagedArray<Integer> array = new ArenaPagedArray<>(Integer.class, tempDir.resolve("spill"))) {
+            array.add(1);
+            assertThrows(IndexOutOfBoundsException.class, () -> array.get(1));
+            assertThrows(IndexOutOfBoundsException.class, () -> array.set(-1, 2));
+        }
+    }
+
+    @Test
+    void spillFileIsDeletedOnClose() {
+        Path spill = tempDir.resolve("spill");
+        try (ArenaPagedArray<Integer> array = new ArenaPagedArray<>(Integer.class, spill, 4, 1)) {
+            for (int i = 0; i < 20; i++) {
+                array.add(i);
+            }
+        }
+        assertFalse(Files.exists(spill));
+    }
+}
@@ -0,0 +1,86 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaRaggedIntArrayTest {
+
+    @Test
+    void sizeIsZeroOnNewArray() {
+        ArenaRaggedIntArray array = new ArenaRaggedIntArray();
+        assertEquals(0, array.size());
+        assertTrue(array.isEmpty());
+    }
+
+    @Test
+    void appendStoresRowsOfDifferentLength() {
+        ArenaRaggedIntArray array = new ArenaRaggedIntArray();
+        array.append(new int[]{1, 2, 3});
+        array.append(new int[0]);
+        array.append(new int[]{9});
+        assertEquals(3, array.size());
+        assertEquals(3, array.lengthAt(0));
+        assertEquals(0, array.lengthAt(1));
+        assertEquals(1, array.lengthAt(2));
+        assertEquals(4, array.totalLength());
+        assertEquals(9, array.get(2, 0));
+    }
+
+    @Test
+    void appendGrowsFromZeroCapacity() {
+        ArenaRaggedIntArray array = new ArenaRaggedIntArray(0, 0);
+        for (int i = 0; i < 100; i++) {
+            array.append(new int[]{i, i * 2});
+        }
+        assertEquals(100, array.size());
+        assertArrayEquals(new int[]{99, 198}, array.toArray(99));
+    }
+
+    @Test
+    void sliceAtIsViewOverValues() {
+        ArenaRaggedIntArray array = new ArenaRaggedIntArray();
+        array.append(new int[]{1, 2});
+        array.append(new int[]{3, 4, 5});
+        MemorySegment slice = array.sliceAt(1);
+        assertEquals(3 * Integer.BYTES, slice.byteSize());
+        slice.setAtIndex(ValueLayout.JAVA_INT, 0, 42);
+        assertEquals(42, array.get(1, 0));
+    }
+
+    @Test
+    void getThrowsOnInvalidPosition() {
+        ArenaRaggedIntArray array = new ArenaRaggedIntArray();
+        array.append(new int[]{1, 2});
+        assertThrows(IndexOutOfBoundsException.class, () -> array.get(0, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.get(1, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.lengthAt(-1));
+    }
+
+    @Test
+    void appendNullRowThrows() {
+        ArenaRaggedIntArray array = new ArenaRaggedIntArray();
+        assertThrows(NullPointerException.class, () -> array.append(null));
+    }
+
+    @Test
+    void sliceDetachesOnGrowthAndDiesOnClose() {
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long before = budget.getLiveBytes();
+        ArenaRaggedIntArray array = new ArenaRaggedIntArray(1, 2);
+        array.append(new int[]{1, 2});
+        MemorySegment slice = array.sliceAt(0);
+        array.clear();
+        array.append(new int[]{7, 8, 9});
+        // the append grew the values, so the old view still reads the old row
+        assertArrayEquals(new int[]{1, 2}, slice.toArray(ValueLayout.JAVA_INT));
+        assertArrayEquals(new int[]{7, 8, 9}, array.toArray(0));
+        assertTrue(budget.getLiveBytes() > before);
+        array.close();
+        assertEquals(before, budget.getLiveBytes());
+        assertFalse(slice.scope().isAlive());
+    }
+}
@@ -0,0 +1,72 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaSlabPoolTest {
+
+    @Test
+    void pooledArraysBehaveLikeArenaArrays() {
+        try (ArenaSlabPool pool = new ArenaSlabPool()) {
+            ArenaDynArray<Long> array = new ArenaDynArray<>(Long.class, 2, pool);
+            for (long i = 0; i < 10_000; i++) {
+                array.add(i * i);
+            }
+            assertEquals(10_000, array.size());
+            assertEquals(9_999L * 9_999L, array.getLast());
+            assertEquals(49L, array.get(7));
+            array.close();
+        }
+    }
+
+    @Test
+    void closedArraysReturnBlocksForReuse() {
+        try (ArenaSlabPool pool = new ArenaSlabPool(1 << 16, 1 << 10)) {
+            for (int round = 0; round < 1000; round++) {
+                ArenaDynArray<Integer> array = new ArenaDynArray<>(Integer.class, 8, pool);
+                array.add(round);
+                array.close();
+            }
+            assertEquals(1, pool.slabCount());
+        }
+    }
+
+    @Test
+    void reusedBlocksAreZeroed() {
+        try (ArenaSlabPool pool = new ArenaSlabPool()) {
+            ArenaDynArray<Integer> first = new ArenaDynArray<>(Integer.class, 8, pool);
+            for (int i = 0; i < 8; i++) {
+                first.add(-1);
+            }
+            first.close();
+            ArenaDynArray<Integer> second = new ArenaDynArray<>(Integer.class, 8, pool);
+            assertEquals(0, second.reserveRaw(8).get(java.lang.foreign.ValueLayout.JAVA_INT, 0));
+            second.close();
+        }
+    }
+
+    @Test
+    void manySmallArraysShareFewSlabs() {
+        try (ArenaSlabPool pool = new ArenaSlabPool()) {
+            List<ArenaDynArray<Double>> arrays = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                ArenaDynArray<Double> array = new ArenaDynArray<>(Double.class, 4, pool);
+                array.add((double) i);
+                arrays.add(array);
+            }
+            assertEquals(9_999.0, arrays.getLast().get(0));
+            assertTrue(pool.slabCount() < 10);
+            arrays.forEach(ArenaDynArray::close);
+        }
+    }
+
+    @Test
+    void invalidConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ArenaSlabPool(1 << 20, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new ArenaSlabPool(1 << 10, 1 << 16));
+    }
+}
@@ -0,0 +1,108 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaTextLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    Path writeText(String text) throws IOException {
+        return Files.writeString(tempDir.resolve("values.txt"), text);
+    }
+
+    @Test
+    void loadLongsParsesNewlineAndCommaSeparatedValues() throws IOException {
+        Path file = writeText("1,2\n-3\r\n+4,\n\n9223372036854775807\n-9223372036854775808");
+        ArenaDynArray<Long> array = ArenaTextLoader.loadLongs(file);
+        assertEquals(6, array.size());
+        assertEquals(-3L, array.get(2));
+        assertEquals(4L, array.get(3));
+        assertEquals(Long.MAX_VALUE, array.get(4));
+        assertEquals(Long.MIN_VALUE, array.get(5));
+    }
+
+    @Test
+    void loadLongsOnEmptyFileReturnsEmptyArray() throws IOException {
+        assertTrue(ArenaTextLoader.loadLongs(writeText("")).isEmpty());
+    }
+
+    @Test
+    void loadLongsThrowsOnInvalidToken() throws IOException {
+        Path file = writeText("1,2,x3");
+        assertThrows(NumberFormatException.class, () -> ArenaTextLoader.loadLongs(file));
+    }
+
+    @Test
+    void loadLongsThrowsOnOverflow() throws IOException {
+        Path file = writeText("9223372036854775808");
+        assertThrows(NumberFormatException.class, () -> ArenaTextLoader.loadLongs(file));
+    }
+
+    @Test
+    void loadLongsInParallelKeepsOrder() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            text.append(i * 31L).append(i % 2 == 0 ? "\n" : ",");
+        }
+        ArenaDynArray<Long> array = ArenaTextLoader.loadLongs(writeText(text.toString()), 4);
+        assertEquals(100_000, array.size());
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i * 31L, array.get(i));
+        }
+    }
+
+    @Test
+    void invalidTokenReleasesEverythingParsed() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            text.append(i).append('\n');
+        }
+        Path file = writeText(text.append("x\n").toString());
+        ArenaMemoryBudget budget = ArenaMemoryBudget.global();
+        long before = budget.getLiveBytes();
+        assertThrows(NumberFormatException.class, () -> ArenaTextLoader.loadLongs(file));
+        assertThrows(NumberFormatException.class, () -> ArenaTextLoader.loadLongs(file, 4));
+        assertEquals(before, budget.getLiveBytes());
+    }
+
+    @Test
+    void loadDoublesMatchesParseDouble() throws IOException {
+        String[] tokens = {"0.1", "-2.5", "1e5", "3.14159e-3", "0.0001", "123456789012345678901", "NaN", "-Infinity", "1.7976931348623157E308"};
+        ArenaDynArray<Double> array = ArenaTextLoader.loadDoubles(writeText(String.join("\n", tokens)));
+        assertEquals(tokens.length, array.size());
+        for (int i = 0; i < tokens.length; i++) {
+            assertEquals(Double.parseDouble(tokens[i]), array.get(i));
+        }
+    }
+
+    @Test
+    void loadDoublesInParallelKeepsOrder() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            text.append(i / 8.0).append('\n');
+        }
+        ArenaDynArray<Double> array = ArenaTextLoader.loadDoubles(writeText(text.toString()), 3);
+        assertEquals(50_000, array.size());
+        assertEquals(49_999 / 8.0, array.getLast());
+    }
+
+    @Test
+    void loadDoublesThrowsOnInvalidToken() throws IOException {
+        Path file = writeText("1.0\nabc");
+        assertThrows(NumberFormatException.class, () -> ArenaTextLoader.loadDoubles(file));
+    }
+
+    @Test
+    void invalidParallelismThrows() throws IOException {
+        Path file = writeText("1");
+        assertThrows(IllegalArgumentException.class, () -> ArenaTextLoader.loadLongs(file, 0));
+    }
+}
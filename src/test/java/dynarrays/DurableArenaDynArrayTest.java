@@ -0,0 +1,143 @@
+package dynarrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableArenaDynArrayTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void newLogStartsEmpty() {
+        try (DurableArenaDynArray<Long> log = DurableArenaDynArray.open(Long.class, tempDir.resolve("log.bin"))) {
+            assertTrue(log.isEmpty());
+        }
+    }
+
+    @Test
+    void reopenRecoversAppends() {
+        Path file = tempDir.resolve("log.bin");
+        try (DurableArenaDynArray<Long> log = DurableArenaDynArray.open(Long.class, file)) {
+            log.add(1L);
+            log.addAll(List.of(2L, 3L));
+        }
+        try (DurableArenaDynArray<Long> log = DurableArenaDynArray.open(Long.class, file)) {
+            assertEquals(3, log.size());
+            assertEquals(List.of(1L, 2L, 3L), List.copyOf(log.view()));
+        }
+    }
+
+    @Test
+    void everyAppendPolicyCommitsImmediately() {
+        try (DurableArenaDynArray<Integer> log = DurableArenaDynArray.open(Integer.class, tempDir.resolve("log.bin"))) {
+            log.add(1);
+            assertEquals(0, log.pendingAppends());
+        }
+    }
+
+    @Test
+    void batchedPolicyCommitsByCount() {
+        DurableArenaDynArray.CommitPolicy policy = DurableArenaDynArray.CommitPolicy.batched(3, Duration.ZERO);
+        try (DurableArenaDynArray<Integer> log = DurableArenaDynArray.open(Integer.class, tempDir.resolve("log.bin"), policy)) {
+            log.add(1);
+            log.add(2);
+            assertEquals(2, log.pendingAppends());
+            log.add(3);
+            assertEquals(0, log.pendingAppends());
+        }
+    }
+
+    @Test
+    void batchStaysOpenUntilDelayOrCount() {
+        DurableArenaDynArray.CommitPolicy policy = DurableArenaDynArray.CommitPolicy.batched(1000, Duration.ofSeconds(10));
+        try (DurableArenaDynArray<Integer> log = DurableArenaDynArray.open(Integer.class, tempDir.resolve("log.bin"), policy)) {
+            for (int i = 0; i < 5; i++) {
+                log.add(i);
+            }
+            assertEquals(5, log.pendingAppends());
+        }
+    }
+
+    @Test
+    void maxDelayCommitsWithoutFurtherAppends() throws Exception {
+        DurableArenaDynArray.CommitPolicy policy = DurableArenaDynArray.CommitPolicy.batched(1000, Duration.ofMillis(50));
+        Path file = tempDir.resolve("log.bin");
+        try (DurableArenaDynArray<Integer> log = DurableArenaDynArray.open(Integer.class, file, policy)) {
+            log.add(1);
+            log.add(2);
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (log.pendingAppends() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, log.pendingAppends());
+            assertEquals(16 + 2 * Integer.BYTES, Files.size(file));
+        }
+    }
+
+    @Test
+    void syncCommitsPendingAppends() throws IOException {
+        Path file = tempDir.resolve("log.bin");
+        DurableArenaDynArray.CommitPolicy policy = DurableArenaDynArray.CommitPolicy.batched(1000, Duration.ZERO);
+        try (DurableArenaDynArray<Integer> log = DurableArenaDynArray.open(Integer.class, file, policy)) {
+            log.add(1);
+            log.add(2);
+            long before = Files.size(file);
+            log.sync();
+            assertEquals(0, log.pendingAppends());
+            assertEquals(before + 2 * Integer.BYTES, Files.size(file));
+        }
+    }
+
+    @Test
+    void recoveryDropsTornTail() throws IOException {
+        Path file = tempDir.resolve("log.bin");
+        try (DurableArenaDynArray<Long> log = DurableArenaDynArray.open(Long.class, file)) {
+            log.add(42L);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[3]), channel.size());
+        }
+        try (DurableArenaDynArray<Long> log = DurableArenaDynArray.open(Long.class, file)) {
+            assertEquals(1, log.size());
+            assertEquals(42L, log.get(0));
+        }
+    }
+
+    @Test
+    void reopenWithDifferentElementSizeThrows() {
+        Path file = tempDir.resolve("log.bin");
+        try (DurableArenaDynArray<Long> log = DurableArenaDynArray.open(Long.class, file)) {
+            log.add(1L);
+        }
+        assertThrows(IllegalStateException.class, () -> DurableArenaDynArray.open(Integer.class, file));
+    }
+
+    @Test
+    void reopenWithDifferentTypeOfSameSizeThrows() {
+        Path file = tempDir.resolve("log.bin");
+        try (DurableArenaDynArray<Long> log = DurableArenaDynArray.open(Long.class, file)) {
+            log.add(1L);
+        }
+        assertThrows(UnsupportedDynArrayTypeException.class, () -> DurableArenaDynArray.open(Double.class, file));
+    }
+
+    @Test
+    void viewIsReadOnly() {
+        try (DurableArenaDynArray<Long> log = DurableArenaDynArray.open(Long.class, tempDir.resolve("log.bin"))) {
+            log.add(1L);
+            assertThrows(UnsupportedOperationException.class, () -> log.view().add(2L));
+        }
+    }
+}
@@ -0,0 +1,242 @@
+#!/usr/bin/env python3
+# Writes the reference Arrow IPC files read by ArenaArrowIOTest.
+#
+# With pyarrow installed the files are written by pyarrow itself. Without it they are written by
+# the encoder below, which follows the Arrow columnar format spec and the conventions of the C++
+# writer (default-valued fields left out, shared vtables, an empty validity buffer, per-buffer
+# 8-byte padding) and shares no code with ArenaArrowIO. Run with --without-pyarrow to force it.
+import os
+import struct
+import sys
+
+HERE = os.path.dirname(os.path.abspath(__file__))
+
+# name -> (arrow type, struct format, record batches)
+REFERENCES = {
+    "int32": ("int32", "i", [[-2147483648, -1, 0, 1, 2147483647]]),
+    "int64": ("int64", "q", [[0, -1, 1 << 62], [9223372036854775807, -9223372036854775808]]),
+    "uint16": ("uint16", "H", [[0x41, 0x3A9, 0xFFFF]]),
+    "float64": ("float64", "d", [[0.5, -1e300, float("inf"), 5e-324]]),
+    "float32": ("float32", "f", [[1.5, -0.0, 3.4028234663852886e38, 1.401298464324817e-45]]),
+    "float16": ("float16", "e", [[1.0, -2.0, 0.5, 65504.0]]),
+}
+
+
+def with_pyarrow():
+    import numpy as np
+    import pyarrow as pa
+    for name, (arrow_type, _, batches) in REFERENCES.items():
+        schema = pa.schema([pa.field("values", getattr(pa, arrow_type)())])
+        with pa.OSFile(os.path.join(HERE, name + ".arrow"), "wb") as sink:
+            with pa.ipc.new_file(sink, schema) as writer:
+                for values in batches:
+                    column = pa.array(np.array(values, dtype=arrow_type))
+                    writer.write_batch(pa.record_batch([column], schema=schema))
+
+
+class Builder:
+    # back-to-front flatbuffer builder with the semantics of the flatbuffers library
+
+    def __init__(self):
+        self.buf = bytearray(64)
+        self.head = len(self.buf)
+        self.min_align = 1
+        self.vtable = None
+        self.object_end = 0
+        self.vtables = []
+
+    def offset(self):
+        return len(self.buf) - self.head
+
+    def prep(self, size, additional):
+        self.min_align = max(self.min_align, size)
+        align = -(self.offset() + additional) & (size - 1)
+        while self.head < align + size + additional:
+            self.head += len(self.buf)
+            self.buf = bytearray(len(self.buf)) + self.buf
+        self.head -= align
+
+    def place(self, fmt, value):
+        self.head -= struct.calcsize(fmt)
+        struct.pack_into("<" + fmt, self.buf, self.head, value)
+
+    def prepend(self, fmt, value):
+        self.prep(struct.calcsize(fmt), 0)
+        self.place(fmt, value)
+
+    def prepend_offset(self, target):
+        self.prep(4, 0)
+        self.place("I", self.offset() - target + 4)
+
+    def string(self, value):
+        data = value.encode()
+        self.prep(4, len(data) + 1)
+        self.place("B", 0)
+        self.head -= len(data)
+        self.buf[self.head:self.head + len(data)] = data
+        self.place("I", len(data))
+        return self.offset()
+
+    def struct_vector(self, size, alignment, elements, write):
+        self.prep(4, size * len(elements))
+        self.prep(alignment, size * len(elements))
+        for element in reversed(elements):
+            write(element)
+        self.place("I", len(elements))
+        return self.offset()
+
+    def start(self, fields):
+        self.vtable = [0] * fields
+        self.object_end = self.offset()
+
+    def scalar(self, field, fmt, value, default):
+        if value != default:
+            self.prepend(fmt, value)
+            self.vtable[field] = self.offset()
+
+    def reference(self, field, target):
+        self.prepend_offset(target)
+        self.vtable[field] = self.offset()
+
+    def end(self):
+        self.prepend("i", 0)
+        table = self.offset()
+        fields = self.vtable
+        while fields and fields[-1] == 0:
+            fields = fields[:-1]
+        entries = [table - slot if slot else 0 for slot in fields]
+        encoded = struct.pack("<%dH" % (len(entries) + 2), 2 * (len(entries) + 2), table - self.object_end, *entries)
+        for existing in self.vtables:
+            start = len(self.buf) - existing
+            if self.buf[start:start + len(encoded)] == encoded:
+                struct.pack_into("<i", self.buf, len(self.buf) - table, existing - table)
+                break
+        else:
+            for entry in reversed(entries):
+                self.prepend("H", entry)
+            self.prepend("H", table - self.object_end)
+            self.prepend("H", 2 * (len(entries) + 2))
+            self.vtables.append(self.offset())
+            struct.pack_into("<i", self.buf, len(self.buf) - table, self.offset() - table)
+        self.vtable = None
+        return table
+
+    def finish(self, root):
+        self.prep(self.min_align, 4)
+        self.prepend_offset(root)
+        return bytes(self.buf[self.head:])
+
+
+V5 = 4
+TYPE_INT, TYPE_FLOATING_POINT = 2, 3
+HEADER_SCHEMA, HEADER_RECORD_BATCH = 1, 3
+TYPES = {
+    "int32": (TYPE_INT, 32, True), "int64": (TYPE_INT, 64, True), "uint16": (TYPE_INT, 16, False),
+    "float16": (TYPE_FLOATING_POINT, 0), "float32": (TYPE_FLOATING_POINT, 1), "float64": (TYPE_FLOATING_POINT, 2),
+}
+
+
+def schema(b, arrow_type):
+    name = b.string("values")
+    kind = TYPES[arrow_type]
+    if kind[0] == TYPE_INT:
+        b.start(2)
+        b.scalar(0, "i", kind[1], 0)
+        b.scalar(1, "B", int(kind[2]), 0)
+    else:
+        b.start(1)
+        b.scalar(0, "h", kind[1], 0)
+    type_table = b.end()
+    children = b.struct_vector(4, 4, [], None)
+    b.start(7)
+    b.reference(5, children)
+    b.reference(3, type_table)
+    b.reference(0, name)
+    b.scalar(2, "B", kind[0], 0)
+    b.scalar(1, "B", 1, 0)
+    field = b.end()
+    b.prep(4, 4)
+    b.prepend_offset(field)
+    b.place("I", 1)
+    fields = b.offset()
+    b.start(4)
+    b.reference(1, fields)
+    return b.end()
+
+
+def message(header_type, header, body_length):
+    b = Builder()
+    header_table = header(b)
+    b.start(5)
+    b.scalar(3, "q", body_length, 0)
+    b.reference(2, header_table)
+    b.scalar(0, "h", V5, 0)
+    b.scalar(1, "B", header_type, 0)
+    return b.finish(b.end())
+
+
+def encapsulate(flatbuffer):
+    padded = (len(flatbuffer) + 8 + 7) // 8 * 8 - 8
+    return struct.pack("<iI", -1, padded) + flatbuffer + bytes(padded - len(flatbuffer))
+
+
+def record_batch(rows, data_length):
+    def header(b):
+        def buffer(entry):
+            b.prepend("q", entry[1])
+            b.prepend("q", entry[0])
+        buffers = b.struct_vector(16, 8, [(0, 0), (0, data_length)], buffer)
+
+        def node(entry):
+            b.prepend("q", entry[1])
+            b.prepend("q", entry[0])
+        nodes = b.struct_vector(16, 8, [(rows, 0)], node)
+        b.start(4)
+        b.scalar(0, "q", rows, 0)
+        b.reference(2, buffers)
+        b.reference(1, nodes)
+        return b.end()
+    return header
+
+
+def without_pyarrow():
+    for name, (arrow_type, fmt, batches) in REFERENCES.items():
+        out = bytearray(b"ARROW1\0\0")
+        out += encapsulate(message(HEADER_SCHEMA, lambda b: schema(b, arrow_type), 0))
+        blocks = []
+        for values in batches:
+            data = struct.pack("<%d%s" % (len(values), fmt), *values)
+            body = data + bytes(-len(data) & 7)
+            metadata = encapsulate(message(HEADER_RECORD_BATCH, record_batch(len(values), len(data)), len(body)))
+            blocks.append((len(out), len(metadata), len(body)))
+            out += metadata + body
+        out += struct.pack("<iI", -1, 0)
+
+        b = Builder()
+        footer_schema = schema(b, arrow_type)
+
+        def block(entry):
+            b.prepend("q", entry[2])
+            b.head -= 4
+            b.prepend("i", entry[1])
+            b.prepend("q", entry[0])
+        record_batches = b.struct_vector(24, 8, blocks, block)
+        dictionaries = b.struct_vector(24, 8, [], None)
+        b.start(5)
+        b.reference(3, record_batches)
+        b.reference(2, dictionaries)
+        b.reference(1, footer_schema)
+        b.scalar(0, "h", V5, 0)
+        footer = b.finish(b.end())
+        out += footer + struct.pack("<I", len(footer)) + b"ARROW1"
+        with open(os.path.join(HERE, name + ".arrow"), "wb") as f:
+            f.write(out)
+
+
+if __name__ == "__main__":
+    try:
+        if "--without-pyarrow" in sys.argv:
+            raise ImportError
+        with_pyarrow()
+    except ImportError:
+        without_pyarrow()